@@ -0,0 +1,22 @@
+/**
+ * A* search: Dijkstra ordered by distance plus the straight-line distance to the destination
+ * divided by the faster of the cart and walking speeds. No edge can cover ground faster than
+ * that, so the estimate never overshoots and the route stays optimal.
+ */
+public class AStarRouteEngine extends DijkstraRouteEngine {
+
+    @Override
+    protected double[] potentials(RouteQuery query) {
+        double[] potential = new double[query.nodeCount];
+        for (int v = 0; v < query.nodeCount; v++) {
+            potential[v] = lowerBound(query, v, query.target);
+        }
+        return potential;
+    }
+
+    static double lowerBound(RouteQuery query, int from, int to) {
+        CartSegmentGraph graph = query.graph;
+        double maxSpeed = Math.max(graph.cartSpeed, graph.walkingSpeed);
+        return CartSegmentGraph.travelTime(query.x(from), query.y(from), query.x(to), query.y(to), maxSpeed);
+    }
+}
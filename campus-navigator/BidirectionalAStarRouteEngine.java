@@ -0,0 +1,145 @@
+import java.util.*;
+
+/**
+ * Bidirectional A* with average potentials. A forward search from the start and a backward
+ * search from the destination run on the same (symmetric) graph, both guided by
+ * p(v) = (h_destination(v) - h_start(v)) / 2, where h is the straight-line lower bound used by
+ * AStarRouteEngine. The search stops once the two smallest queue keys add up to the best
+ * meeting cost seen so far.
+ */
+public class BidirectionalAStarRouteEngine implements RouteEngine {
+
+    @Override
+    public List<RouteDirection> findRoute(CartSegmentGraph graph, Point start, Point destination, SearchStats stats) {
+        RouteQuery query = graph.query(start, destination);
+        int n = query.nodeCount;
+        double[] potential = new double[n];
+        for (int v = 0; v < n; v++) {
+            potential[v] = (AStarRouteEngine.lowerBound(query, v, query.target)
+                    - AStarRouteEngine.lowerBound(query, v, query.source)) / 2.0;
+        }
+
+        Side forward = new Side(n, query.source, potential, 1.0);
+        Side backward = new Side(n, query.target, potential, -1.0);
+        stats.heapPushes += 2;
+        int[] cartMark = new int[n];
+        int stamp = 0;
+        double best = Double.MAX_VALUE;
+        int meetFrom = -1;
+        int meetTo = -1;
+
+        while (!forward.queue.isEmpty() && !backward.queue.isEmpty()) {
+            if (forward.queue.peekKey() + backward.queue.peekKey() >= best) {
+                break;
+            }
+            boolean isForward = forward.queue.peekKey() <= backward.queue.peekKey();
+            Side side = isForward ? forward : backward;
+            Side other = isForward ? backward : forward;
+
+            int u = side.queue.poll();
+            side.settled[u] = true;
+            stats.settledNodes++;
+            double du = side.dist[u];
+            stamp++;
+
+            if (u < graph.stationCount) {
+                for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                    int v = graph.targets[e];
+                    cartMark[v] = stamp;
+                    double alt = du + graph.weights[e];
+                    if (other.dist[v] < Double.MAX_VALUE && alt + other.dist[v] < best) {
+                        best = alt + other.dist[v];
+                        meetFrom = isForward ? u : v;
+                        meetTo = isForward ? v : u;
+                    }
+                    if (!side.settled[v]) {
+                        stats.relaxedEdges++;
+                        if (side.relax(u, v, alt)) {
+                            stats.heapPushes++;
+                        }
+                    }
+                }
+            }
+
+            int ux = query.x(u);
+            int uy = query.y(u);
+            for (int v = 0; v < n; v++) {
+                if (v == u || cartMark[v] == stamp) {
+                    continue;
+                }
+                boolean reached = other.dist[v] < Double.MAX_VALUE;
+                if (side.settled[v] && !reached) {
+                    continue;
+                }
+                double alt = du + CartSegmentGraph.travelTime(ux, uy, query.x(v), query.y(v), graph.walkingSpeed);
+                if (reached && alt + other.dist[v] < best) {
+                    best = alt + other.dist[v];
+                    meetFrom = isForward ? u : v;
+                    meetTo = isForward ? v : u;
+                }
+                if (!side.settled[v]) {
+                    stats.relaxedEdges++;
+                    if (side.relax(u, v, alt)) {
+                        stats.heapPushes++;
+                    }
+                }
+            }
+        }
+
+        if (meetFrom < 0) {
+            return new ArrayList<>();
+        }
+        int forwardSteps = 0;
+        for (int v = meetFrom; v != query.source; v = forward.predecessors[v]) {
+            forwardSteps++;
+        }
+        int backwardSteps = 0;
+        for (int v = meetTo; v != query.target; v = backward.predecessors[v]) {
+            backwardSteps++;
+        }
+        int[] path = new int[forwardSteps + backwardSteps + 2];
+        int v = meetFrom;
+        for (int i = forwardSteps; i >= 0; i--) {
+            path[i] = v;
+            v = forward.predecessors[v];
+        }
+        v = meetTo;
+        for (int i = forwardSteps + 1; i < path.length; i++) {
+            path[i] = v;
+            v = backward.predecessors[v];
+        }
+        return query.directionsAlong(path);
+    }
+
+    private static class Side {
+        final double[] dist;
+        final int[] predecessors;
+        final boolean[] settled;
+        final IndexedMinHeap queue;
+        final double[] potential;
+        final double sign;
+
+        Side(int n, int origin, double[] potential, double sign) {
+            this.dist = new double[n];
+            this.predecessors = new int[n];
+            this.settled = new boolean[n];
+            this.queue = new IndexedMinHeap(n);
+            this.potential = potential;
+            this.sign = sign;
+            Arrays.fill(dist, Double.MAX_VALUE);
+            Arrays.fill(predecessors, -1);
+            dist[origin] = 0.0;
+            queue.insertOrDecrease(origin, sign * potential[origin]);
+        }
+
+        boolean relax(int u, int v, double alt) {
+            if (alt < dist[v]) {
+                dist[v] = alt;
+                predecessors[v] = u;
+                queue.insertOrDecrease(v, alt + sign * potential[v]);
+                return true;
+            }
+            return false;
+        }
+    }
+}
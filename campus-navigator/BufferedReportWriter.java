@@ -0,0 +1,158 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Base class for the report renderers. Everything is appended to one reusable char buffer
+ * that is handed to the target Writer only when it fills up or on flush(), and numbers are
+ * written digit by digit, so rendering a row allocates nothing.
+ */
+public abstract class BufferedReportWriter implements ReportWriter {
+    private static final int BUFFER_SIZE = 1 << 14;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final Writer out;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final char[] digits = new char[20];
+    private int length;
+
+    protected BufferedReportWriter(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public void flush() {
+        try {
+            drain();
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    protected void append(char c) {
+        if (length == buffer.length) {
+            drainUnchecked();
+        }
+        buffer[length++] = c;
+    }
+
+    protected void append(String s) {
+        if (s == null) {
+            s = "null";
+        }
+        int from = 0;
+        while (from < s.length()) {
+            if (length == buffer.length) {
+                drainUnchecked();
+            }
+            int count = Math.min(s.length() - from, buffer.length - length);
+            s.getChars(from, from + count, buffer, length);
+            length += count;
+            from += count;
+        }
+    }
+
+    protected void append(long value) {
+        appendDigits(value, digitsOf(value));
+    }
+
+    protected void repeat(char c, int count) {
+        for (int i = 0; i < count; i++) {
+            append(c);
+        }
+    }
+
+    protected void newLine() {
+        append(LINE_SEPARATOR);
+    }
+
+    /**
+     * Same as String.format("%-" + width + "s", s).
+     */
+    protected void appendPadded(String s, int width) {
+        append(s);
+        repeat(' ', width - (s == null ? 4 : s.length()));
+    }
+
+    /**
+     * Same as String.format("%-" + width + "d", value).
+     */
+    protected void appendPadded(long value, int width) {
+        int count = digitsOf(value);
+        appendDigits(value, count);
+        repeat(' ', width - count);
+    }
+
+    /**
+     * Same as String.format("%.2f", value) in an English locale. Formatter rounds the shortest
+     * decimal form of the value half up, so values within a hair of a half cent take the slow,
+     * exact path through that same decimal form; every other value rounds the same way either way.
+     */
+    protected void appendFixed2(double value) {
+        double magnitude = Math.abs(value);
+        if (!(magnitude < 1e9)) {
+            append(String.format("%.2f", value));
+            return;
+        }
+        double scaled = magnitude * 100;
+        double whole = Math.floor(scaled);
+        double fraction = scaled - whole;
+        if (Double.doubleToRawLongBits(value) < 0) {
+            append('-');
+        }
+        if (Math.abs(fraction - 0.5) < 1e-4) {
+            append(new BigDecimal(Double.toString(magnitude)).setScale(2, RoundingMode.HALF_UP).toPlainString());
+            return;
+        }
+        long cents = (long) whole + (fraction > 0.5 ? 1 : 0);
+        append(cents / 100);
+        append('.');
+        append((char) ('0' + cents / 10 % 10));
+        append((char) ('0' + cents % 10));
+    }
+
+    private int digitsOf(long value) {
+        if (value == Long.MIN_VALUE) {
+            return 20;
+        }
+        int count = value < 0 ? 2 : 1;
+        for (long v = Math.abs(value); v >= 10; v /= 10) {
+            count++;
+        }
+        return count;
+    }
+
+    private void appendDigits(long value, int count) {
+        if (value == Long.MIN_VALUE) {
+            append(Long.toString(value));
+            return;
+        }
+        long v = Math.abs(value);
+        for (int i = count - 1; i >= 0; i--) {
+            digits[i] = (char) ('0' + v % 10);
+            v /= 10;
+        }
+        if (value < 0) {
+            digits[0] = '-';
+        }
+        for (int i = 0; i < count; i++) {
+            append(digits[i]);
+        }
+    }
+
+    private void drain() throws IOException {
+        out.write(buffer, 0, length);
+        length = 0;
+    }
+
+    private void drainUnchecked() {
+        try {
+            drain();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
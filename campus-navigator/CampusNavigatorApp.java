@@ -1,172 +1,376 @@
-import java.io.Serializable;
-import java.util.*;
-
-public class CampusNavigatorApp implements Serializable {
-    static final long serialVersionUID = 99L;
-
-    public HashMap<Station, Station> predecessors = new HashMap<>();
-    public HashMap<Set<Station>, Double> times = new HashMap<>();
-
-    public CampusNavigatorNetwork readCampusNavigatorNetwork(String filename) {
-        CampusNavigatorNetwork network = new CampusNavigatorNetwork();
-        network.readInput(filename);
-        return network;
-    }
-
-
-    /**
-     * Calculates the fastest route from the user's selected starting point to
-     * the desired destination, using the campus golf cart network and walking paths.
-     * @return List of RouteDirection instances
-     */
-
-    public List<RouteDirection> getFastestRouteDirections(CampusNavigatorNetwork network) {
-        List<RouteDirection> routeDirections = new ArrayList<>();
-
-        List<Station> points = new ArrayList<>();
-        Map<Station, List<Station>> adjacencyList = new HashMap<>();
-        Map<String, Boolean> shuttleLinks = new HashMap<>();
-
-        points.add(network.startPoint);
-        points.add(network.destinationPoint);
-
-        int lineIndex = 0;
-        while (lineIndex < network.lines.size()) {
-            CartLine cart = network.lines.get(lineIndex);
-            for (Station st : cart.cartLineStations) {
-                points.add(st);
-            }
-            lineIndex++;
-        }
-
-        for (Station st : points) {
-            adjacencyList.putIfAbsent(st, new ArrayList<>());
-        }
-
-        int i = 0;
-        while (i < points.size()) {
-            int j = 0;
-            while (j < points.size()) {
-                Station s1 = points.get(i);
-                Station s2 = points.get(j);
-                if (!s1.equals(s2)) {
-                    adjacencyList.get(s1).add(s2);
-                    double walkTime = estimateTravelTime(s1.coordinates, s2.coordinates, network.averageWalkingSpeed);
-                    Set<Station> timeKey = new HashSet<>(Arrays.asList(s1, s2));
-                    times.put(timeKey, walkTime);
-                }
-                j++;
-            }
-            i++;
-        }
-
-        int cartLineIndex = 0;
-        if (network.lines.size() > 0) {
-            do {
-                CartLine cart = network.lines.get(cartLineIndex);
-                List<Station> stops = cart.cartLineStations;
-
-                int idx = 0;
-                for (; idx < stops.size() - 1; idx++) {
-                    Station start = stops.get(idx);
-                    Station end = stops.get(idx + 1);
-                    adjacencyList.get(start).add(end);
-                    adjacencyList.get(end).add(start);
-                    double cartSpeed = network.averageCartSpeed;
-                    double travelTime = estimateTravelTime(start.coordinates, end.coordinates, cartSpeed);
-                    Set<Station> timeKey = new HashSet<>(Arrays.asList(start, end));
-                    times.put(timeKey, travelTime);
-                    shuttleLinks.put(start.toString() + ":" + end.toString(), true);
-                    shuttleLinks.put(end.toString() + ":" + start.toString(), true);
-                }
-
-                cartLineIndex++;
-            } while (cartLineIndex < network.lines.size());
-        }
-
-        Map<Station, Double> shortestDist = new HashMap<>();
-        Map<Station, Station> predecessors = new HashMap<>();
-        for (Station station : points) {
-            shortestDist.put(station, Double.MAX_VALUE);
-        }
-        shortestDist.put(network.startPoint, 0.0);
-
-        PriorityQueue<Station> queue = new PriorityQueue<>(Comparator.comparingDouble(shortestDist::get));
-        queue.add(network.startPoint);
-
-        do {
-            if (queue.isEmpty()) {
-                break;
-            }
-            Station current = queue.poll();
-            List<Station> neighbors = adjacencyList.getOrDefault(current, new ArrayList<>());
-
-            int nIndex = 0;
-            while (nIndex < neighbors.size()) {
-                Station neighbor = neighbors.get(nIndex);
-                Set<Station> key = new HashSet<>(Arrays.asList(current, neighbor));
-                if (times.containsKey(key)) {
-                    double altDist = shortestDist.get(current) + times.get(key);
-                    if (altDist < shortestDist.get(neighbor)) {
-                        shortestDist.put(neighbor, altDist);
-                        predecessors.put(neighbor, current);
-                        queue.add(neighbor);
-                    }
-                }
-                nIndex++;
-            }
-        } while (!queue.isEmpty());
-
-        List<Station> finalPath = new ArrayList<>();
-
-        for (Station step = network.destinationPoint; step != null; step = predecessors.get(step)) {
-            finalPath.add(step);
-        }
-
-
-        Collections.reverse(finalPath);
-
-        int pathIndex = 0;
-        while (pathIndex < finalPath.size() - 1) {
-            Station origin = finalPath.get(pathIndex);
-            Station dest = finalPath.get(pathIndex + 1);
-            Set<Station> timeKey = new HashSet<>(Arrays.asList(origin, dest));
-            double duration = times.getOrDefault(timeKey, estimateTravelTime(origin.coordinates, dest.coordinates, network.averageWalkingSpeed));
-            boolean viaCart = shuttleLinks.containsKey(origin.toString() + ":" + dest.toString());
-            routeDirections.add(new RouteDirection(origin.toString(), dest.toString(), duration, viaCart));
-            pathIndex++;
-        }
-
-        return routeDirections;
-    }
-
-    /**
-     * Function to print the route directions to STDOUT
-     */
-    public void printRouteDirections(List<RouteDirection> routeSteps) {
-        double accumulatedDuration = 0.0;
-        for (int i = 0; i < routeSteps.size(); i++) {
-            accumulatedDuration += routeSteps.get(i).duration;
-        }
-        System.out.println("The fastest route takes " + Math.round(accumulatedDuration) + " minute(s).");
-        System.out.println("Directions\n----------");
-
-        int stepNumber = 1;
-        int idx = 0;
-        while (idx < routeSteps.size()) {
-            RouteDirection step = routeSteps.get(idx);
-            String mode = step.cartRide ? "Ride the cart" : "Walk";
-            System.out.printf("%d. %s from \"%s\" to \"%s\" for %.2f minutes.%n",
-                    stepNumber++, mode, step.startStationName, step.endStationName, step.duration);
-            idx++;
-        }
-    }
-
-    private double estimateTravelTime(Point firstPoint, Point secondPoint, double speed) {
-        double dx = firstPoint.x - secondPoint.x;
-        double dy = firstPoint.y - secondPoint.y;
-        double distance = Math.sqrt(dx * dx + dy * dy);
-        return distance / speed;
-    }
-
-}
+import java.io.Serializable;
+import java.util.*;
+
+public class CampusNavigatorApp implements Serializable {
+    static final long serialVersionUID = 99L;
+
+    private static final MetricsRegistry.Timer TOTAL_TIMER = MetricsRegistry.global().timer("route.total");
+    private static final MetricsRegistry.Timer GRAPH_BUILD_TIMER = MetricsRegistry.global().timer("route.graphBuild");
+    private static final MetricsRegistry.Timer SEARCH_TIMER = MetricsRegistry.global().timer("route.search");
+    private static final MetricsRegistry.Counter SETTLED_NODES = MetricsRegistry.global().counter("route.settledNodes");
+    private static final MetricsRegistry.Counter RELAXED_EDGES = MetricsRegistry.global().counter("route.relaxedEdges");
+    private static final MetricsRegistry.Counter HEAP_PUSHES = MetricsRegistry.global().counter("route.heapPushes");
+
+    public RoutingMode routingMode = RoutingMode.ALL_PAIRS;
+    public SearchQueue searchQueue = SearchQueue.PRIORITY_QUEUE;
+    /**
+     * Whether the RouteEngine modes build their CartSegmentGraph with shared stops merged into
+     * transfer nodes. Travel times stay the same as long as averageCartSpeed is at least the
+     * walking speed (see CartSegmentGraph); at a transfer the directions name the station
+     * as each line calls it rather than adding a zero-minute walk between the two stops.
+     */
+    public boolean mergeSharedStops = false;
+
+    /**
+     * ALL_PAIRS builds the hashed walking/cart edge map on every call; COMPILED runs Dijkstra
+     * over a CompiledCampusNetwork. The remaining modes run a RouteEngine over a CartSegmentGraph
+     * that stores only the cart segments. All modes return the same directions.
+     */
+    public enum RoutingMode {
+        ALL_PAIRS(null),
+        COMPILED(null),
+        IMPLICIT_WALK(new DijkstraRouteEngine()),
+        A_STAR(new AStarRouteEngine()),
+        BIDIRECTIONAL_A_STAR(new BidirectionalAStarRouteEngine()),
+        RADIUS_PRUNED(PrunedWalkRouteEngine.exact());
+
+        public final RouteEngine engine;
+
+        RoutingMode(RouteEngine engine) {
+            this.engine = engine;
+        }
+    }
+
+    /**
+     * Priority queue of the ALL_PAIRS search. PRIORITY_QUEUE keeps the original java.util queue;
+     * the heaps are IndexedMinHeaps with true decrease-key over dense station ids.
+     */
+    public enum SearchQueue {
+        PRIORITY_QUEUE(0),
+        BINARY_HEAP(2),
+        FOUR_ARY_HEAP(4),
+        EIGHT_ARY_HEAP(8);
+
+        public final int arity;
+
+        SearchQueue(int arity) {
+            this.arity = arity;
+        }
+    }
+
+    public CampusNavigatorNetwork readCampusNavigatorNetwork(String filename) {
+        CampusNavigatorNetwork network = new CampusNavigatorNetwork();
+        network.readInput(filename);
+        return network;
+    }
+
+
+    /**
+     * Calculates the fastest route from the user's selected starting point to
+     * the desired destination, using the campus golf cart network and walking paths.
+     * @return List of RouteDirection instances
+     */
+
+    public List<RouteDirection> getFastestRouteDirections(CampusNavigatorNetwork network) {
+        return getFastestRouteDirections(network, new SearchStats());
+    }
+
+    /**
+     * Same as getFastestRouteDirections(network), adding the settled nodes, relaxed edges and
+     * heap pushes of the search to stats. Every mode counts its work; the times of graph building
+     * and searching, and the same work counts, also go to the global MetricsRegistry.
+     */
+    public List<RouteDirection> getFastestRouteDirections(CampusNavigatorNetwork network, SearchStats stats) {
+        long total = TOTAL_TIMER.start();
+        long settled = stats.settledNodes;
+        long relaxed = stats.relaxedEdges;
+        long pushes = stats.heapPushes;
+        List<RouteDirection> route;
+        switch (routingMode) {
+            case ALL_PAIRS:
+                route = getAllPairsRouteDirections(network, stats);
+                break;
+            case COMPILED: {
+                long build = GRAPH_BUILD_TIMER.start();
+                CompiledCampusNetwork compiled = CompiledCampusNetwork.compile(network);
+                GRAPH_BUILD_TIMER.stop(build);
+                long search = SEARCH_TIMER.start();
+                route = compiled.getFastestRouteDirections(stats);
+                SEARCH_TIMER.stop(search);
+                break;
+            }
+            default: {
+                long build = GRAPH_BUILD_TIMER.start();
+                CartSegmentGraph graph = CartSegmentGraph.build(network, mergeSharedStops);
+                GRAPH_BUILD_TIMER.stop(build);
+                long search = SEARCH_TIMER.start();
+                route = routingMode.engine.findRoute(graph,
+                        network.startPoint.coordinates, network.destinationPoint.coordinates, stats);
+                SEARCH_TIMER.stop(search);
+            }
+        }
+        SETTLED_NODES.add(stats.settledNodes - settled);
+        RELAXED_EDGES.add(stats.relaxedEdges - relaxed);
+        HEAP_PUSHES.add(stats.heapPushes - pushes);
+        TOTAL_TIMER.stop(total);
+        return route;
+    }
+
+    /**
+     * Every cart station reachable from origin within the given number of minutes. Repeated
+     * queries on one campus should keep an IsochroneSearch instead, which reuses its arrays.
+     */
+    public Isochrone getReachableStations(CampusNavigatorNetwork network, Point origin, double minutes) {
+        return new IsochroneSearch(CartSegmentGraph.build(network)).reach(origin, minutes);
+    }
+
+    private List<RouteDirection> getAllPairsRouteDirections(CampusNavigatorNetwork network, SearchStats stats) {
+        long build = GRAPH_BUILD_TIMER.start();
+        List<RouteDirection> routeDirections = new ArrayList<>();
+
+        List<Station> points = new ArrayList<>();
+        Map<Set<Station>, Double> times = new HashMap<>();
+        Map<Station, List<Station>> adjacencyList = new HashMap<>();
+        Map<String, Boolean> shuttleLinks = new HashMap<>();
+
+        points.add(network.startPoint);
+        points.add(network.destinationPoint);
+
+        int lineIndex = 0;
+        while (lineIndex < network.lines.size()) {
+            CartLine cart = network.lines.get(lineIndex);
+            for (Station st : cart.cartLineStations) {
+                points.add(st);
+            }
+            lineIndex++;
+        }
+
+        for (Station st : points) {
+            adjacencyList.putIfAbsent(st, new ArrayList<>());
+        }
+
+        int i = 0;
+        while (i < points.size()) {
+            int j = 0;
+            while (j < points.size()) {
+                Station s1 = points.get(i);
+                Station s2 = points.get(j);
+                if (!s1.equals(s2)) {
+                    adjacencyList.get(s1).add(s2);
+                    double walkTime = estimateTravelTime(s1.coordinates, s2.coordinates, network.averageWalkingSpeed);
+                    Set<Station> timeKey = new HashSet<>(Arrays.asList(s1, s2));
+                    times.put(timeKey, walkTime);
+                }
+                j++;
+            }
+            i++;
+        }
+
+        int cartLineIndex = 0;
+        if (network.lines.size() > 0) {
+            do {
+                CartLine cart = network.lines.get(cartLineIndex);
+                List<Station> stops = cart.cartLineStations;
+
+                int idx = 0;
+                for (; idx < stops.size() - 1; idx++) {
+                    Station start = stops.get(idx);
+                    Station end = stops.get(idx + 1);
+                    adjacencyList.get(start).add(end);
+                    adjacencyList.get(end).add(start);
+                    double cartSpeed = network.averageCartSpeed;
+                    double travelTime = estimateTravelTime(start.coordinates, end.coordinates, cartSpeed);
+                    Set<Station> timeKey = new HashSet<>(Arrays.asList(start, end));
+                    times.put(timeKey, travelTime);
+                    shuttleLinks.put(start.toString() + ":" + end.toString(), true);
+                    shuttleLinks.put(end.toString() + ":" + start.toString(), true);
+                }
+
+                cartLineIndex++;
+            } while (cartLineIndex < network.lines.size());
+        }
+
+        GRAPH_BUILD_TIMER.stop(build);
+
+        long search = SEARCH_TIMER.start();
+        Map<Station, Station> predecessors = searchQueue == SearchQueue.PRIORITY_QUEUE
+                ? searchWithPriorityQueue(network.startPoint, points, adjacencyList, times, stats)
+                : searchWithIndexedHeap(network.startPoint, points, adjacencyList, times, stats, searchQueue.arity);
+
+        List<Station> finalPath = new ArrayList<>();
+
+        for (Station step = network.destinationPoint; step != null; step = predecessors.get(step)) {
+            finalPath.add(step);
+        }
+
+
+        Collections.reverse(finalPath);
+
+        int pathIndex = 0;
+        while (pathIndex < finalPath.size() - 1) {
+            Station origin = finalPath.get(pathIndex);
+            Station dest = finalPath.get(pathIndex + 1);
+            Set<Station> timeKey = new HashSet<>(Arrays.asList(origin, dest));
+            double duration = times.getOrDefault(timeKey, estimateTravelTime(origin.coordinates, dest.coordinates, network.averageWalkingSpeed));
+            boolean viaCart = shuttleLinks.containsKey(origin.toString() + ":" + dest.toString());
+            routeDirections.add(new RouteDirection(origin.toString(), dest.toString(), duration, viaCart));
+            pathIndex++;
+        }
+        SEARCH_TIMER.stop(search);
+
+        return routeDirections;
+    }
+
+    /**
+     * The original search: updated stations are added again instead of moved, and the queue
+     * orders by the shortestDist map even while entries already in it change.
+     */
+    private Map<Station, Station> searchWithPriorityQueue(Station start, List<Station> points,
+                                                          Map<Station, List<Station>> adjacencyList,
+                                                          Map<Set<Station>, Double> times, SearchStats stats) {
+        Map<Station, Double> shortestDist = new HashMap<>();
+        Map<Station, Station> predecessors = new HashMap<>();
+        for (Station station : points) {
+            shortestDist.put(station, Double.MAX_VALUE);
+        }
+        shortestDist.put(start, 0.0);
+
+        PriorityQueue<Station> queue = new PriorityQueue<>(Comparator.comparingDouble(shortestDist::get));
+        queue.add(start);
+        stats.heapPushes++;
+
+        do {
+            if (queue.isEmpty()) {
+                break;
+            }
+            Station current = queue.poll();
+            stats.settledNodes++;
+            List<Station> neighbors = adjacencyList.getOrDefault(current, new ArrayList<>());
+
+            int nIndex = 0;
+            while (nIndex < neighbors.size()) {
+                Station neighbor = neighbors.get(nIndex);
+                Set<Station> key = new HashSet<>(Arrays.asList(current, neighbor));
+                if (times.containsKey(key)) {
+                    stats.relaxedEdges++;
+                    double altDist = shortestDist.get(current) + times.get(key);
+                    if (altDist < shortestDist.get(neighbor)) {
+                        shortestDist.put(neighbor, altDist);
+                        predecessors.put(neighbor, current);
+                        queue.add(neighbor);
+                        stats.heapPushes++;
+                    }
+                }
+                nIndex++;
+            }
+        } while (!queue.isEmpty());
+
+        return predecessors;
+    }
+
+    /**
+     * Dijkstra over dense station ids with an IndexedMinHeap of the given arity, so every
+     * station is queued at most once and settled exactly once. The adjacency lists and times are
+     * copied into CSR arrays first, neighbours in their list order, so the search loop itself
+     * allocates nothing and relaxes the same edges in the same order as before.
+     */
+    private Map<Station, Station> searchWithIndexedHeap(Station start, List<Station> points,
+                                                        Map<Station, List<Station>> adjacencyList,
+                                                        Map<Set<Station>, Double> times, SearchStats stats, int arity) {
+        Map<Station, Integer> ids = new HashMap<>();
+        List<Station> stations = new ArrayList<>();
+        for (Station station : points) {
+            if (ids.putIfAbsent(station, stations.size()) == null) {
+                stations.add(station);
+            }
+        }
+        int n = stations.size();
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] = offsets[u] + adjacencyList.getOrDefault(stations.get(u), Collections.emptyList()).size();
+        }
+        int[] targets = new int[offsets[n]];
+        double[] weights = new double[offsets[n]];
+        int m = 0;
+        for (int u = 0; u < n; u++) {
+            Station current = stations.get(u);
+            for (Station neighbor : adjacencyList.getOrDefault(current, Collections.emptyList())) {
+                Double time = times.get(new HashSet<>(Arrays.asList(current, neighbor)));
+                if (time != null) {
+                    targets[m] = ids.get(neighbor);
+                    weights[m++] = time;
+                }
+            }
+            offsets[u + 1] = m;
+        }
+
+        double[] dist = new double[n];
+        int[] predecessorIds = new int[n];
+        Arrays.fill(dist, Double.MAX_VALUE);
+        Arrays.fill(predecessorIds, -1);
+        int source = ids.get(start);
+        dist[source] = 0.0;
+
+        IndexedMinHeap queue = new IndexedMinHeap(n, arity);
+        queue.insertOrDecrease(source, 0.0);
+        stats.heapPushes++;
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            stats.settledNodes++;
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                stats.relaxedEdges++;
+                int v = targets[e];
+                double altDist = dist[u] + weights[e];
+                if (altDist < dist[v]) {
+                    dist[v] = altDist;
+                    predecessorIds[v] = u;
+                    queue.insertOrDecrease(v, altDist);
+                    stats.heapPushes++;
+                }
+            }
+        }
+
+        Map<Station, Station> predecessors = new HashMap<>();
+        for (int v = 0; v < n; v++) {
+            if (predecessorIds[v] >= 0) {
+                predecessors.put(stations.get(v), stations.get(predecessorIds[v]));
+            }
+        }
+        return predecessors;
+    }
+
+    /**
+     * Function to print the route directions to STDOUT
+     */
+    public void printRouteDirections(List<RouteDirection> routeSteps) {
+        ReportWriter report = ReportWriter.toStandardOutput();
+        printRouteDirections(routeSteps, report);
+        report.flush();
+    }
+
+    /**
+     * Same as printRouteDirections(routeSteps), rendered by the given report writer.
+     * The caller flushes the writer.
+     */
+    public void printRouteDirections(List<RouteDirection> routeSteps, ReportWriter report) {
+        double accumulatedDuration = 0.0;
+        for (int i = 0; i < routeSteps.size(); i++) {
+            accumulatedDuration += routeSteps.get(i).duration;
+        }
+        report.beginRoute(accumulatedDuration);
+
+        int stepNumber = 1;
+        for (RouteDirection step : routeSteps) {
+            report.routeStep(stepNumber++, step.cartRide, step.startStationName, step.endStationName, step.duration);
+        }
+        report.endRoute();
+    }
+
+    private double estimateTravelTime(Point firstPoint, Point secondPoint, double speed) {
+        double dx = firstPoint.x - secondPoint.x;
+        double dy = firstPoint.y - secondPoint.y;
+        double distance = Math.sqrt(dx * dx + dy * dy);
+        return distance / speed;
+    }
+
+}
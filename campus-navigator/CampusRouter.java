@@ -0,0 +1,44 @@
+import java.util.List;
+
+/**
+ * Long-lived router for one loaded campus. The cart-line graph is built once in the constructor
+ * and never changes afterwards; every route() call works on its own query arrays, so any number
+ * of threads can ask for routes between arbitrary points concurrently.
+ */
+public class CampusRouter {
+    private final CartSegmentGraph graph;
+    private final RouteEngine engine;
+
+    public CampusRouter(CampusNavigatorNetwork network) {
+        this(CartSegmentGraph.build(network), new AStarRouteEngine());
+    }
+
+    public CampusRouter(CampusNavigatorNetwork network, RouteEngine engine) {
+        this(CartSegmentGraph.build(network), engine);
+    }
+
+    public CampusRouter(CartSegmentGraph graph, RouteEngine engine) {
+        this.graph = graph;
+        this.engine = engine;
+    }
+
+    public CartSegmentGraph getGraph() {
+        return graph;
+    }
+
+    public RouteEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Calculates the fastest route between two arbitrary points on the loaded campus.
+     * @return List of RouteDirection instances
+     */
+    public List<RouteDirection> route(Point start, Point destination) {
+        return engine.findRoute(graph, start, destination, new SearchStats());
+    }
+
+    public List<RouteDirection> route(Point start, Point destination, SearchStats stats) {
+        return engine.findRoute(graph, start, destination, stats);
+    }
+}
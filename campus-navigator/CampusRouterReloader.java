@@ -0,0 +1,235 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Keeps a CampusRouter for a navigation file up to date while it serves queries. The current
+ * router sits behind an AtomicReference, so get() is a single volatile read and never blocks.
+ * A daemon thread watches the file's directory through a WatchService; once the file has been
+ * quiet for a short while it is parsed and a new router is built on that thread, then swapped
+ * in. Queries that already hold the old router finish on it, later get() calls see the new one.
+ * If the new file does not parse, the old router stays and the error is kept for getLastError().
+ * If watching itself fails, for instance because the directory was removed, the thread keeps
+ * trying to watch it again with growing pauses and reloads once it succeeds; isWatching() tells
+ * whether changes are currently being picked up.
+ *
+ * Writers should replace the file by moving a finished file over it; a file that is still being
+ * written could otherwise be read half-way once it pauses for longer than the quiet period.
+ * Files ending in .cnav are read as NetworkSnapshot files, anything else with readInput. Pass
+ * the reloader to RouteCache as its router supplier and cached routes are dropped on every swap.
+ */
+public class CampusRouterReloader implements Supplier<CampusRouter>, AutoCloseable {
+    private static final long QUIET_MILLIS = 200;
+    private static final long MAX_RETRY_MILLIS = 5000;
+    private static final MetricsRegistry.Timer RELOAD_TIMER = MetricsRegistry.global().timer("network.reload");
+    private static final MetricsRegistry.Counter RELOAD_FAILURES = MetricsRegistry.global().counter("network.reloadFailures");
+
+    private final Path file;
+    private final RouteEngine engine;
+    private final AtomicReference<CampusRouter> router = new AtomicReference<>();
+    private final AtomicLong reloads = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile Exception lastError;
+    private volatile WatchService watcher;
+    private volatile boolean watching;
+    private volatile boolean closed;
+    private Thread thread;
+
+    /**
+     * Loads the file once; a file that does not parse fails here rather than in the background.
+     */
+    public CampusRouterReloader(Path file, RouteEngine engine) {
+        this.file = file.toAbsolutePath();
+        this.engine = engine;
+        router.set(load());
+    }
+
+    public CampusRouterReloader(Path file) {
+        this(file, new AStarRouteEngine());
+    }
+
+    @Override
+    public CampusRouter get() {
+        return router.get();
+    }
+
+    /**
+     * Starts watching the file. Safe to call once; close() stops the watcher.
+     */
+    public synchronized void start() throws IOException {
+        if (thread != null || closed) {
+            throw new IllegalStateException("Already watching " + file);
+        }
+        watcher = register();
+        watching = true;
+        thread = new Thread(this::watch, "network-reloader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Parses the file and swaps in a new router on the calling thread.
+     * @return true if the new router is in place, false if the file failed to load
+     */
+    public boolean reload() {
+        long start = RELOAD_TIMER.start();
+        try {
+            router.set(load());
+            reloads.incrementAndGet();
+            lastError = null;
+            return true;
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            RELOAD_FAILURES.add(1);
+            lastError = e;
+            return false;
+        } finally {
+            RELOAD_TIMER.stop(start);
+        }
+    }
+
+    public long getReloadCount() {
+        return reloads.get();
+    }
+
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    /**
+     * @return why the latest reload failed or watching stopped, or null if the latest reload succeeded
+     */
+    public Exception getLastError() {
+        return lastError;
+    }
+
+    /**
+     * @return true while the file's directory is being watched; false before start(), after
+     * close() and while the watcher is being set up again after a failure
+     */
+    public boolean isWatching() {
+        return watching;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        watching = false;
+        if (thread != null) {
+            thread.interrupt();
+            WatchService current = watcher;
+            if (current != null) {
+                current.close();
+            }
+            thread = null;
+        }
+    }
+
+    private CampusRouter load() {
+        CampusNavigatorNetwork network = new CampusNavigatorNetwork();
+        if (file.getFileName().toString().endsWith(".cnav")) {
+            network.readSnapshot(file.toString());
+        } else {
+            network.readInput(file.toString());
+        }
+        return new CampusRouter(network, engine);
+    }
+
+    private WatchService register() throws IOException {
+        WatchService service = file.getFileSystem().newWatchService();
+        try {
+            file.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | RuntimeException e) {
+            service.close();
+            throw e;
+        }
+        return service;
+    }
+
+    private void watch() {
+        long retryMillis = QUIET_MILLIS;
+        try {
+            while (!closed) {
+                try {
+                    if (watcher == null) {
+                        watcher = register();
+                        watching = true;
+                        retryMillis = QUIET_MILLIS;
+                        // The file may have changed while nobody was watching
+                        reload();
+                    }
+                    awaitChanges(watcher);
+                } catch (IOException | RuntimeException e) {
+                    if (e instanceof ClosedWatchServiceException && closed) {
+                        return;
+                    }
+                    lastError = e;
+                    watching = false;
+                    WatchService failed = watcher;
+                    watcher = null;
+                    if (failed != null) {
+                        failed.close();
+                    }
+                    Thread.sleep(retryMillis);
+                    retryMillis = Math.min(retryMillis * 2, MAX_RETRY_MILLIS);
+                }
+            }
+        } catch (InterruptedException | IOException e) {
+            // close() was called, or the failed watcher could not even be closed
+        } finally {
+            watching = false;
+            WatchService current = watcher;
+            if (current != null) {
+                try {
+                    current.close();
+                } catch (IOException e) {
+                    // Nothing left to watch with it
+                }
+            }
+        }
+    }
+
+    /**
+     * Reloads after every change to the file; returns only by throwing.
+     */
+    private void awaitChanges(WatchService service) throws InterruptedException {
+        while (true) {
+            if (!drainEvents(service.take())) {
+                continue;
+            }
+            // Editors and copy tools write in several steps; wait until the file stays quiet.
+            // Writes to other files in the directory do not extend the wait
+            long quiet = TimeUnit.MILLISECONDS.toNanos(QUIET_MILLIS);
+            long deadline = System.nanoTime() + quiet;
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0) {
+                WatchKey key = service.poll(remaining, TimeUnit.NANOSECONDS);
+                if (key != null && drainEvents(key)) {
+                    deadline = System.nanoTime() + quiet;
+                }
+            }
+            reload();
+        }
+    }
+
+    /**
+     * Drains the key's events and re-arms it.
+     * @return true if one of them was about the watched file
+     */
+    private boolean drainEvents(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            Object context = event.context();
+            changed |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || (context instanceof Path && file.getFileName().equals(context));
+        }
+        if (!key.reset()) {
+            throw new UncheckedIOException(new IOException("Stopped watching " + file.getParent()));
+        }
+        return changed;
+    }
+}
@@ -5,9 +5,33 @@ public class CartLine implements Serializable {
     static final long serialVersionUID = 77L;
     public String cartLineName;
     public List<Station> cartLineStations;
+    /** Minutes after midnight of the first cart leaving each end of the line. */
+    public int firstDeparture;
+    /** Minutes after midnight of the last cart leaving each end of the line. */
+    public int lastDeparture;
+    /** Minutes between carts; 0 when the line has no timetable. */
+    public int headway;
 
     public CartLine(String cartLineName, List<Station> cartLineStations) {
         this.cartLineName = cartLineName;
         this.cartLineStations = cartLineStations;
     }
+
+    /**
+     * @return true if carts leave both end stations every headway minutes from firstDeparture
+     * to lastDeparture, instead of being available at any time
+     */
+    public boolean hasTimetable() {
+        return headway > 0;
+    }
+
+    public void setTimetable(int firstDeparture, int lastDeparture, int headway) {
+        if (headway < 1 || firstDeparture < 0 || lastDeparture < firstDeparture) {
+            throw new IllegalArgumentException("Invalid timetable: first=" + firstDeparture
+                    + ", last=" + lastDeparture + ", headway=" + headway);
+        }
+        this.firstDeparture = firstDeparture;
+        this.lastDeparture = lastDeparture;
+        this.headway = headway;
+    }
 }
@@ -0,0 +1,261 @@
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Routing graph that stores only the cart segments of a campus. Cart stations get dense ids
+ * in line order and their segments are kept in CSR form (offsets / targets / weights) in both
+ * directions. Walking edges are never stored: a search asks walkTime() for them on demand,
+ * so memory grows with the number of cart segments instead of the square of the station count.
+ * A StationGrid over the station coordinates is built alongside for nearest-station lookups.
+ *
+ * Lines that share a stop list it once each, so by default every stop of every line is a node of
+ * its own and changing lines costs a zero-minute walk. Built with mergeSharedStops, stops are
+ * interned by coordinate instead: all stops at one point become a single transfer node carrying
+ * the segments of every line through it. That cuts the node count, and the walking edges a search
+ * considers with it, on campuses where lines meet. The per-line station names are kept
+ * (stopOffsets / stopLines / stopNames) and every segment records its line (edgeLines), so
+ * directions still name the station as each line calls it.
+ *
+ * Routes over a merged graph take exactly as long as over the unmerged one as long as carts are
+ * at least as fast as walking. A segment always replaces walking between the two nodes it joins,
+ * and merging lets it join stops of other lines that used to be linked by walking only. With
+ * slower carts those walks are lost, and a merged route can take longer.
+ */
+public class CartSegmentGraph implements Serializable {
+    static final long serialVersionUID = 112L;
+
+    public static final String START_NAME = "Starting Point";
+    public static final String DESTINATION_NAME = "Final Destination";
+
+    public final int stationCount;
+    public final int[] xs;
+    public final int[] ys;
+    public final String[] names;
+    public final int[] offsets;
+    public final int[] targets;
+    public final double[] weights;
+    /** Line index of each segment, parallel to targets; null unless shared stops are merged. */
+    public final int[] edgeLines;
+    /** Lines stopping at node i are stopLines[stopOffsets[i] .. stopOffsets[i + 1]); null unless merged. */
+    public final int[] stopOffsets;
+    public final int[] stopLines;
+    public final String[] stopNames;
+    public final double cartSpeed;
+    public final double walkingSpeed;
+    public final StationGrid grid;
+
+    private CartSegmentGraph(int[] xs, int[] ys, String[] names, int[] offsets, int[] targets,
+                             double[] weights, int[] edgeLines, int[] stopOffsets, int[] stopLines, String[] stopNames,
+                             double cartSpeed, double walkingSpeed) {
+        this.stationCount = names.length;
+        this.xs = xs;
+        this.ys = ys;
+        this.names = names;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.edgeLines = edgeLines;
+        this.stopOffsets = stopOffsets;
+        this.stopLines = stopLines;
+        this.stopNames = stopNames;
+        this.cartSpeed = cartSpeed;
+        this.walkingSpeed = walkingSpeed;
+        this.grid = new StationGrid(xs, ys);
+    }
+
+    public static CartSegmentGraph build(CampusNavigatorNetwork network) {
+        return build(network.lines, network.averageCartSpeed, network.averageWalkingSpeed);
+    }
+
+    public static CartSegmentGraph build(CampusNavigatorNetwork network, boolean mergeSharedStops) {
+        return build(network.lines, network.averageCartSpeed, network.averageWalkingSpeed, mergeSharedStops);
+    }
+
+    public static CartSegmentGraph build(List<CartLine> lines, double cartSpeed, double walkingSpeed) {
+        return build(lines, cartSpeed, walkingSpeed, false);
+    }
+
+    /**
+     * @param mergeSharedStops whether stops of different lines at the same coordinates become one node
+     */
+    public static CartSegmentGraph build(List<CartLine> lines, double cartSpeed, double walkingSpeed, boolean mergeSharedStops) {
+        if (mergeSharedStops) {
+            return buildMerged(lines, cartSpeed, walkingSpeed);
+        }
+        int m = 0;
+        for (CartLine line : lines) {
+            m += line.cartLineStations.size();
+        }
+
+        int[] xs = new int[m];
+        int[] ys = new int[m];
+        String[] names = new String[m];
+        int[] degree = new int[m];
+        int id = 0;
+        for (CartLine line : lines) {
+            int stops = line.cartLineStations.size();
+            for (int idx = 0; idx < stops; idx++) {
+                Station st = line.cartLineStations.get(idx);
+                xs[id] = st.coordinates.x;
+                ys[id] = st.coordinates.y;
+                names[id] = st.toString();
+                degree[id] = (idx > 0 ? 1 : 0) + (idx < stops - 1 ? 1 : 0);
+                id++;
+            }
+        }
+
+        int[] offsets = new int[m + 1];
+        for (int i = 0; i < m; i++) {
+            offsets[i + 1] = offsets[i] + degree[i];
+        }
+        int[] targets = new int[offsets[m]];
+        double[] weights = new double[offsets[m]];
+        int[] fill = Arrays.copyOf(offsets, m);
+        int first = 0;
+        for (CartLine line : lines) {
+            int stops = line.cartLineStations.size();
+            for (int idx = 0; idx < stops - 1; idx++) {
+                int a = first + idx;
+                int b = a + 1;
+                double time = travelTime(xs[a], ys[a], xs[b], ys[b], cartSpeed);
+                targets[fill[a]] = b;
+                weights[fill[a]++] = time;
+                targets[fill[b]] = a;
+                weights[fill[b]++] = time;
+            }
+            first += stops;
+        }
+
+        return new CartSegmentGraph(xs, ys, names, offsets, targets, weights, null, null, null, null, cartSpeed, walkingSpeed);
+    }
+
+    private static CartSegmentGraph buildMerged(List<CartLine> lines, double cartSpeed, double walkingSpeed) {
+        int total = 0;
+        for (CartLine line : lines) {
+            total += line.cartLineStations.size();
+        }
+
+        // Nodes are numbered in order of their first stop, so the layout matches the unmerged one
+        // up to the first shared stop
+        LongIntHashMap ids = new LongIntHashMap(total);
+        int[] nodeOf = new int[total];
+        int[] xs = new int[total];
+        int[] ys = new int[total];
+        int n = 0;
+        int k = 0;
+        for (CartLine line : lines) {
+            for (Station st : line.cartLineStations) {
+                int x = st.coordinates.x;
+                int y = st.coordinates.y;
+                int node = ids.putIfAbsent(Point.pack(x, y), n);
+                if (node < 0) {
+                    node = n++;
+                    xs[node] = x;
+                    ys[node] = y;
+                }
+                nodeOf[k++] = node;
+            }
+        }
+        xs = Arrays.copyOf(xs, n);
+        ys = Arrays.copyOf(ys, n);
+
+        int[] stopOffsets = new int[n + 1];
+        for (int i = 0; i < total; i++) {
+            stopOffsets[nodeOf[i] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            stopOffsets[i + 1] += stopOffsets[i];
+        }
+        int[] stopLines = new int[total];
+        String[] stopNames = new String[total];
+        int[] degree = new int[n];
+        int[] fill = Arrays.copyOf(stopOffsets, n);
+        k = 0;
+        for (int l = 0; l < lines.size(); l++) {
+            List<Station> stations = lines.get(l).cartLineStations;
+            for (int idx = 0; idx < stations.size(); idx++, k++) {
+                int node = nodeOf[k];
+                stopLines[fill[node]] = l;
+                stopNames[fill[node]++] = stations.get(idx).toString();
+                // A line that stops twice at one point in a row has no segment there
+                if (idx > 0 && nodeOf[k - 1] != node) {
+                    degree[node]++;
+                    degree[nodeOf[k - 1]]++;
+                }
+            }
+        }
+        String[] names = new String[n];
+        for (int i = 0; i < n; i++) {
+            names[i] = stopNames[stopOffsets[i]];
+        }
+
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] = offsets[i] + degree[i];
+        }
+        int[] targets = new int[offsets[n]];
+        double[] weights = new double[offsets[n]];
+        int[] edgeLines = new int[offsets[n]];
+        fill = Arrays.copyOf(offsets, n);
+        k = 0;
+        for (int l = 0; l < lines.size(); l++) {
+            int stops = lines.get(l).cartLineStations.size();
+            for (int idx = 0; idx < stops; idx++, k++) {
+                int a = idx > 0 ? nodeOf[k - 1] : -1;
+                int b = nodeOf[k];
+                if (a < 0 || a == b) {
+                    continue;
+                }
+                double time = travelTime(xs[a], ys[a], xs[b], ys[b], cartSpeed);
+                targets[fill[a]] = b;
+                edgeLines[fill[a]] = l;
+                weights[fill[a]++] = time;
+                targets[fill[b]] = a;
+                edgeLines[fill[b]] = l;
+                weights[fill[b]++] = time;
+            }
+        }
+
+        return new CartSegmentGraph(xs, ys, names, offsets, targets, weights, edgeLines, stopOffsets, stopLines, stopNames,
+                cartSpeed, walkingSpeed);
+    }
+
+    public boolean isMerged() {
+        return edgeLines != null;
+    }
+
+    /**
+     * @return how many lines stop at the node; more than one makes it a transfer node
+     */
+    public int lineCount(int node) {
+        return stopOffsets == null ? 1 : stopOffsets[node + 1] - stopOffsets[node];
+    }
+
+    /**
+     * @return the node's name on the given line, or names[node] if that line does not stop there
+     */
+    public String stopName(int node, int line) {
+        if (stopOffsets != null) {
+            for (int i = stopOffsets[node]; i < stopOffsets[node + 1]; i++) {
+                if (stopLines[i] == line) {
+                    return stopNames[i];
+                }
+            }
+        }
+        return names[node];
+    }
+
+    /**
+     * @return a query over this graph with the start and destination appended as two extra nodes
+     */
+    public RouteQuery query(Point start, Point destination) {
+        return new RouteQuery(this, start, destination);
+    }
+
+    static double travelTime(int x1, int y1, int x2, int y2, double speed) {
+        double dx = x1 - x2;
+        double dy = y1 - y2;
+        double distance = Math.sqrt(dx * dx + dy * dy);
+        return distance / speed;
+    }
+}
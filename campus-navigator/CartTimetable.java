@@ -0,0 +1,185 @@
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Every cart departure of one day as an array of connections sorted by departure time, the input
+ * of ConnectionScanRouter. A connection is one cart driving from one station to the next without
+ * stopping; the consecutive connections of one cart run share a trip id. Each line with a
+ * timetable runs trips in both directions, leaving each end station at firstDeparture,
+ * firstDeparture + headway, ... up to lastDeparture and driving every segment at the average
+ * cart speed. Lines without a timetable carry no connections.
+ *
+ * Stations use the ids of the CartSegmentGraph built alongside, whose coordinates and
+ * StationGrid serve the walking legs. Times are minutes after midnight.
+ */
+public class CartTimetable implements Serializable {
+    static final long serialVersionUID = 119L;
+
+    public final CartSegmentGraph graph;
+    public final int[] departureStations;
+    public final int[] arrivalStations;
+    public final double[] departureTimes;
+    public final double[] arrivalTimes;
+    public final int[] trips;
+    public final int tripCount;
+    /** Line name of each trip. */
+    public final String[] tripLines;
+
+    private CartTimetable(CartSegmentGraph graph, int[] departureStations, int[] arrivalStations,
+                          double[] departureTimes, double[] arrivalTimes, int[] trips, String[] tripLines) {
+        this.graph = graph;
+        this.departureStations = departureStations;
+        this.arrivalStations = arrivalStations;
+        this.departureTimes = departureTimes;
+        this.arrivalTimes = arrivalTimes;
+        this.trips = trips;
+        this.tripCount = tripLines.length;
+        this.tripLines = tripLines;
+    }
+
+    public static CartTimetable build(CampusNavigatorNetwork network) {
+        return build(network.lines, network.averageCartSpeed, network.averageWalkingSpeed);
+    }
+
+    public static CartTimetable build(List<CartLine> lines, double cartSpeed, double walkingSpeed) {
+        CartSegmentGraph graph = CartSegmentGraph.build(lines, cartSpeed, walkingSpeed);
+        long total = 0;
+        int tripTotal = 0;
+        for (CartLine line : lines) {
+            if (line.hasTimetable() && line.cartLineStations.size() > 1) {
+                int runs = (line.lastDeparture - line.firstDeparture) / line.headway + 1;
+                tripTotal += 2 * runs;
+                total += 2L * runs * (line.cartLineStations.size() - 1);
+            }
+        }
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Timetable has too many connections: " + total);
+        }
+        int count = (int) total;
+        int[] from = new int[count];
+        int[] to = new int[count];
+        double[] departures = new double[count];
+        double[] arrivals = new double[count];
+        int[] tripOf = new int[count];
+        String[] tripLines = new String[tripTotal];
+
+        int c = 0;
+        int trip = 0;
+        int first = 0;
+        for (CartLine line : lines) {
+            int stops = line.cartLineStations.size();
+            if (line.hasTimetable() && stops > 1) {
+                double[] segment = new double[stops - 1];
+                for (int i = 0; i < stops - 1; i++) {
+                    int a = first + i;
+                    segment[i] = CartSegmentGraph.travelTime(graph.xs[a], graph.ys[a], graph.xs[a + 1], graph.ys[a + 1], cartSpeed);
+                }
+                for (int start = line.firstDeparture; start <= line.lastDeparture; start += line.headway) {
+                    for (int direction = 0; direction < 2; direction++) {
+                        double time = start;
+                        for (int i = 0; i < stops - 1; i++) {
+                            int s = direction == 0 ? i : stops - 2 - i;
+                            from[c] = first + (direction == 0 ? s : s + 1);
+                            to[c] = first + (direction == 0 ? s + 1 : s);
+                            departures[c] = time;
+                            time += segment[s];
+                            arrivals[c] = time;
+                            tripOf[c] = trip;
+                            c++;
+                        }
+                        tripLines[trip++] = line.cartLineName;
+                    }
+                }
+            }
+            first += stops;
+        }
+
+        // Stable on equal departures, so the connections of one trip keep their order
+        int[] order = sortByDeparture(departures, arrivals);
+        return new CartTimetable(graph, permute(from, order), permute(to, order), permute(departures, order),
+                permute(arrivals, order), permute(tripOf, order), tripLines);
+    }
+
+    public int connectionCount() {
+        return departureTimes.length;
+    }
+
+    /**
+     * @return the index of the first connection departing at or after time
+     */
+    public int firstDepartureAtOrAfter(double time) {
+        int lo = 0;
+        int hi = departureTimes.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (departureTimes[mid] < time) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * @return minutes after midnight as HH:MM, rounded down to the minute
+     */
+    public static String formatTime(double minutes) {
+        int m = (int) Math.floor(minutes);
+        return String.format("%02d:%02d", m / 60, m % 60);
+    }
+
+    /**
+     * Indices of the connections ordered by departure, then arrival, then generation order.
+     */
+    private static int[] sortByDeparture(double[] departures, double[] arrivals) {
+        int n = departures.length;
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        int[] buffer = new int[n];
+        for (int width = 1; width < n; width *= 2) {
+            for (int lo = 0; lo < n; lo += 2 * width) {
+                int mid = Math.min(lo + width, n);
+                int hi = Math.min(lo + 2 * width, n);
+                int i = lo;
+                int j = mid;
+                int k = lo;
+                while (i < mid && j < hi) {
+                    int a = order[i];
+                    int b = order[j];
+                    boolean takeRight = departures[b] < departures[a]
+                            || (departures[b] == departures[a] && arrivals[b] < arrivals[a]);
+                    buffer[k++] = takeRight ? order[j++] : order[i++];
+                }
+                while (i < mid) {
+                    buffer[k++] = order[i++];
+                }
+                while (j < hi) {
+                    buffer[k++] = order[j++];
+                }
+            }
+            int[] swap = order;
+            order = buffer;
+            buffer = swap;
+        }
+        return order;
+    }
+
+    private static int[] permute(int[] values, int[] order) {
+        int[] result = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = values[order[i]];
+        }
+        return result;
+    }
+
+    private static double[] permute(double[] values, int[] order) {
+        double[] result = new double[order.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = values[order[i]];
+        }
+        return result;
+    }
+}
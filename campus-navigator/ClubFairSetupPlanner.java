@@ -1,89 +1,118 @@
-import java.io.Serializable;
-import java.util.*;
-import org.w3c.dom.*;
-import javax.xml.parsers.*;
-import java.io.File;
-
-public class ClubFairSetupPlanner implements Serializable {
-    static final long serialVersionUID = 88L;
-
-    /**
-     * Given a list of Project objects, prints the schedule of each of them.
-     * Uses getEarliestSchedule() and printSchedule() methods of the current project to print its schedule.
-     * @param projectList a list of Project objects
-     */
-
-    public void printSchedule(List<Project> projectList) {
-        for (Project p : projectList) {
-            int[] earliest = p.getEarliestSchedule();
-            p.printSchedule(earliest);
-        }
-    }
-
-    /**
-     * TODO: Parse the input XML file and return a list of Project objects
-     *
-     * @param filename the input XML file
-     * @return a list of Project objects
-     */
-    public List<Project> readXML(String filename) {
-        List<Project> projectList = new ArrayList<>();
-
-        try {
-            File inputFile = new File(filename);
-            DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
-            Document document = docBuilder.parse(inputFile);
-            document.getDocumentElement().normalize();
-
-            NodeList projNodes = document.getElementsByTagName("Project");
-
-            int projIndex = 0;
-            if (projNodes.getLength() > 0) {
-                do {
-                    Element projElement = (Element) projNodes.item(projIndex);
-                    String projName = projElement.getElementsByTagName("Name").item(0).getTextContent();
-
-                    List<Task> taskCollection = new ArrayList<>();
-                    NodeList taskNodes = projElement.getElementsByTagName("Task");
-
-                    int taskIndex = 0;
-                    if (taskNodes.getLength() > 0) {
-                        while (taskIndex < taskNodes.getLength()) {
-                            Element taskElement = (Element) taskNodes.item(taskIndex);
-
-                            int taskIdentifier = Integer.parseInt(taskElement.getElementsByTagName("TaskID").item(0).getTextContent());
-                            String taskDesc = taskElement.getElementsByTagName("Description").item(0).getTextContent();
-                            int taskDuration = Integer.parseInt(taskElement.getElementsByTagName("Duration").item(0).getTextContent());
-
-                            List<Integer> dependencyIds = new ArrayList<>();
-                            NodeList dependencyNodes = taskElement.getElementsByTagName("DependsOnTaskID");
-
-                            int depIndex = 0;
-                            if (dependencyNodes.getLength() > 0) {
-                                while (depIndex < dependencyNodes.getLength()) {
-                                    dependencyIds.add(Integer.parseInt(dependencyNodes.item(depIndex).getTextContent()));
-                                    depIndex++;
-                                }
-                            }
-
-                            taskCollection.add(new Task(taskIdentifier, taskDesc, taskDuration, dependencyIds));
-                            taskIndex++;
-                        }
-                    }
-
-                    projectList.add(new Project(projName, taskCollection));
-                    projIndex++;
-                } while (projIndex < projNodes.getLength());
-            }
-
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
-
-        return projectList;
-    }
-
-
-
-}
+import java.io.Serializable;
+import java.util.*;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import javax.xml.stream.XMLStreamException;
+
+public class ClubFairSetupPlanner implements Serializable {
+    static final long serialVersionUID = 88L;
+    private static final MetricsRegistry.Timer READ_TIMER = MetricsRegistry.global().timer("fair.readXML");
+
+    /**
+     * Given a list of Project objects, prints the schedule of each of them.
+     * Uses getEarliestSchedule() and printSchedule() methods of the current project to print its schedule.
+     * @param projectList a list of Project objects
+     */
+
+    public void printSchedule(List<Project> projectList) {
+        ReportWriter report = ReportWriter.toStandardOutput();
+        printSchedule(projectList, report);
+        report.flush();
+    }
+
+    /**
+     * Same as printSchedule(projectList), rendered by the given report writer.
+     * The caller flushes the writer.
+     */
+    public void printSchedule(List<Project> projectList, ReportWriter report) {
+        for (Project p : projectList) {
+            int[] earliest = p.getEarliestSchedule();
+            p.writeSchedule(earliest, report);
+        }
+    }
+
+    /**
+     * Computes every project's earliest schedule on the given executor and prints the results to
+     * STDOUT in input order through one buffered writer. The output is identical to
+     * printSchedule(projectList). Any executor works, e.g. a ForkJoinPool or a fixed thread pool.
+     * @param projectList a list of Project objects
+     * @param executor runs one scheduling task per project
+     */
+    public void printSchedule(List<Project> projectList, ExecutorService executor) {
+        ReportWriter report = ReportWriter.toStandardOutput();
+        printSchedule(projectList, executor, report);
+        report.flush();
+    }
+
+    public void printSchedule(List<Project> projectList, ExecutorService executor, PrintWriter out) {
+        ReportWriter report = ReportWriter.plainText(out);
+        printSchedule(projectList, executor, report);
+        report.flush();
+    }
+
+    public void printSchedule(List<Project> projectList, ExecutorService executor, ReportWriter report) {
+        List<Future<int[]>> schedules = new ArrayList<>(projectList.size());
+        for (Project p : projectList) {
+            schedules.add(executor.submit(p::getEarliestSchedule));
+        }
+        for (int i = 0; i < projectList.size(); i++) {
+            try {
+                projectList.get(i).writeSchedule(schedules.get(i).get(), report);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while scheduling", ex);
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException("Scheduling failed for project " + i, ex.getCause());
+            }
+        }
+    }
+
+    /**
+     * Schedules all projects against one shared pool of crews.
+     * @param projectList a list of Project objects
+     * @param crews how many tasks may run at the same time across all projects
+     * @return one ResourceSchedule per project, in input order
+     */
+    public List<ResourceSchedule> scheduleWithSharedCrews(List<Project> projectList, int crews) {
+        List<TaskGraph> graphs = new ArrayList<>(projectList.size());
+        for (Project p : projectList) {
+            graphs.add(p.getTaskGraph());
+        }
+        return ResourceConstrainedScheduler.scheduleShared(graphs, crews);
+    }
+
+    /**
+     * Parse the input XML file and return a list of Project objects.
+     * Projects are streamed through ClubFairXmlStreamLoader, so memory stays bounded by the
+     * largest single project plus the returned list. A file that fails part-way is never returned
+     * as a shorter plan.
+     *
+     * @param filename the input XML file
+     * @return a list of Project objects
+     * @throws UncheckedIOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a well-formed club fair plan
+     */
+    public List<Project> readXML(String filename) {
+        long start = READ_TIMER.start();
+        List<Project> projectList = new ArrayList<>();
+
+        try {
+            new ClubFairXmlStreamLoader().load(filename, projectList::add);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (XMLStreamException | RuntimeException ex) {
+            throw new IllegalArgumentException("Malformed club fair file " + filename + ": " + ex.getMessage(), ex);
+        } finally {
+            READ_TIMER.stop(start);
+        }
+
+        return projectList;
+    }
+
+
+
+}
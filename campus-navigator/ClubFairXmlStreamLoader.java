@@ -0,0 +1,119 @@
+import java.io.*;
+import java.util.*;
+import java.util.function.Consumer;
+import javax.xml.stream.*;
+
+/**
+ * Pull-parser loader for the club fair XML. Projects are handed to the consumer as soon as
+ * their closing tag is read, so only one project is held in memory at a time and scheduling
+ * can start before the rest of the file is parsed.
+ *
+ * Field lookup follows the DOM reader it replaced: a project's name is the text of its first
+ * Name element, and TaskID, Description and Duration are the first such element inside a
+ * Task, with every DependsOnTaskID collected.
+ */
+public class ClubFairXmlStreamLoader {
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    public void load(String filename, Consumer<Project> consumer) throws IOException, XMLStreamException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(filename), 1 << 16)) {
+            load(in, consumer);
+        }
+    }
+
+    public void load(InputStream in, Consumer<Project> consumer) throws XMLStreamException {
+        XMLStreamReader reader = FACTORY.createXMLStreamReader(in);
+        try {
+            String projectName = null;
+            List<Task> tasks = null;
+            boolean inTask = false;
+            String taskId = null, description = null, duration = null;
+            List<Integer> dependencies = null;
+
+            StringBuilder text = new StringBuilder();
+            String capturing = null;
+            int depth = 0;
+            int captureDepth = -1;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    String tag = reader.getLocalName();
+                    if (tag.equals("Project")) {
+                        projectName = null;
+                        tasks = new ArrayList<>();
+                    } else if (tasks != null && tag.equals("Task")) {
+                        inTask = true;
+                        taskId = description = duration = null;
+                        dependencies = new ArrayList<>();
+                    } else if (capturing == null && isCaptured(tag, tasks != null, inTask, projectName, taskId, description, duration)) {
+                        capturing = tag;
+                        captureDepth = depth;
+                        text.setLength(0);
+                    }
+                } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                    if (capturing != null) {
+                        text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    String tag = reader.getLocalName();
+                    if (capturing != null && depth == captureDepth) {
+                        String value = text.toString();
+                        switch (capturing) {
+                            case "Name":
+                                projectName = value;
+                                break;
+                            case "TaskID":
+                                taskId = value;
+                                break;
+                            case "Description":
+                                description = value;
+                                break;
+                            case "Duration":
+                                duration = value;
+                                break;
+                            default:
+                                dependencies.add(Integer.parseInt(value));
+                        }
+                        capturing = null;
+                    } else if (inTask && tag.equals("Task")) {
+                        tasks.add(new Task(Integer.parseInt(taskId), description, Integer.parseInt(duration), dependencies));
+                        inTask = false;
+                    } else if (tasks != null && tag.equals("Project")) {
+                        consumer.accept(new Project(projectName, tasks));
+                        tasks = null;
+                    }
+                    depth--;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static boolean isCaptured(String tag, boolean inProject, boolean inTask, String projectName,
+                                      String taskId, String description, String duration) {
+        switch (tag) {
+            case "Name":
+                return inProject && projectName == null;
+            case "TaskID":
+                return inTask && taskId == null;
+            case "Description":
+                return inTask && description == null;
+            case "Duration":
+                return inTask && duration == null;
+            case "DependsOnTaskID":
+                return inTask;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Dense, integer-indexed form of a CampusNavigatorNetwork. Node 0 is the starting point,
+ * node 1 is the destination and the cart stations follow in line order, exactly as
+ * CampusNavigatorApp lists them. Every pair of nodes is joined by an edge stored in CSR
+ * form (offsets / targets / weights); edges that follow a cart segment are flagged in cartEdges.
+ */
+public class CompiledCampusNetwork implements Serializable {
+    static final long serialVersionUID = 111L;
+
+    public static final int START = 0;
+    public static final int DESTINATION = 1;
+
+    public final String[] names;
+    public final int[] offsets;
+    public final int[] targets;
+    public final double[] weights;
+    public final BitSet cartEdges;
+
+    private CompiledCampusNetwork(String[] names, int[] offsets, int[] targets, double[] weights, BitSet cartEdges) {
+        this.names = names;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.cartEdges = cartEdges;
+    }
+
+    public int nodeCount() {
+        return names.length;
+    }
+
+    /**
+     * Turns the network into its compiled form. A pair joined by a cart segment gets the cart
+     * travel time, every other pair the walking time, matching the times used by
+     * CampusNavigatorApp.getFastestRouteDirections.
+     */
+    public static CompiledCampusNetwork compile(CampusNavigatorNetwork network) {
+        List<Station> points = new ArrayList<>();
+        points.add(network.startPoint);
+        points.add(network.destinationPoint);
+        for (CartLine line : network.lines) {
+            points.addAll(line.cartLineStations);
+        }
+
+        int n = points.size();
+        long edgeCount = (long) n * (n - 1);
+        if (edgeCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many stations to compile: " + n);
+        }
+
+        String[] names = new String[n];
+        int[] xs = new int[n];
+        int[] ys = new int[n];
+        for (int i = 0; i < n; i++) {
+            Station st = points.get(i);
+            names[i] = st.toString();
+            xs[i] = st.coordinates.x;
+            ys[i] = st.coordinates.y;
+        }
+
+        // Cart segments per node, in both directions
+        int[] cartDegree = new int[n + 1];
+        int first = 2;
+        for (CartLine line : network.lines) {
+            int stops = line.cartLineStations.size();
+            for (int idx = 0; idx < stops; idx++) {
+                cartDegree[first + idx] = (idx > 0 ? 1 : 0) + (idx < stops - 1 ? 1 : 0);
+            }
+            first += stops;
+        }
+        int[] cartOffsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            cartOffsets[i + 1] = cartOffsets[i] + cartDegree[i];
+        }
+        int[] cartTargets = new int[cartOffsets[n]];
+        int[] fill = Arrays.copyOf(cartOffsets, n);
+        first = 2;
+        for (CartLine line : network.lines) {
+            int stops = line.cartLineStations.size();
+            for (int idx = 0; idx < stops - 1; idx++) {
+                int a = first + idx;
+                int b = a + 1;
+                cartTargets[fill[a]++] = b;
+                cartTargets[fill[b]++] = a;
+            }
+            first += stops;
+        }
+
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[(int) edgeCount];
+        double[] weights = new double[(int) edgeCount];
+        BitSet cartEdges = new BitSet((int) edgeCount);
+
+        int e = 0;
+        for (int u = 0; u < n; u++) {
+            offsets[u] = e;
+            for (int v = 0; v < n; v++) {
+                if (v == u) {
+                    continue;
+                }
+                targets[e] = v;
+                weights[e] = travelTime(xs[u], ys[u], xs[v], ys[v], network.averageWalkingSpeed);
+                e++;
+            }
+            // Targets are in id order without u itself, so the edge u-v sits at a fixed slot
+            for (int c = cartOffsets[u]; c < cartOffsets[u + 1]; c++) {
+                int v = cartTargets[c];
+                int slot = offsets[u] + (v < u ? v : v - 1);
+                weights[slot] = travelTime(xs[u], ys[u], xs[v], ys[v], network.averageCartSpeed);
+                cartEdges.set(slot);
+            }
+        }
+        offsets[n] = e;
+
+        return new CompiledCampusNetwork(names, offsets, targets, weights, cartEdges);
+    }
+
+    /**
+     * Runs Dijkstra from START to DESTINATION over the compiled graph.
+     * @return List of RouteDirection instances
+     */
+    public List<RouteDirection> getFastestRouteDirections() {
+        return getFastestRouteDirections(new SearchStats());
+    }
+
+    /**
+     * Same as getFastestRouteDirections(), adding the work of the search to stats.
+     */
+    public List<RouteDirection> getFastestRouteDirections(SearchStats stats) {
+        int n = nodeCount();
+        double[] dist = new double[n];
+        int[] predEdge = new int[n];
+        int[] predNode = new int[n];
+        Arrays.fill(dist, Double.MAX_VALUE);
+        Arrays.fill(predEdge, -1);
+        dist[START] = 0.0;
+
+        IndexedMinHeap queue = new IndexedMinHeap(n);
+        queue.insertOrDecrease(START, 0.0);
+        stats.heapPushes++;
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            stats.settledNodes++;
+            double du = dist[u];
+            stats.relaxedEdges += offsets[u + 1] - offsets[u];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                double alt = du + weights[e];
+                if (alt < dist[v]) {
+                    dist[v] = alt;
+                    predEdge[v] = e;
+                    predNode[v] = u;
+                    queue.insertOrDecrease(v, alt);
+                    stats.heapPushes++;
+                }
+            }
+        }
+
+        int steps = 0;
+        for (int v = DESTINATION; predEdge[v] >= 0; v = predNode[v]) {
+            steps++;
+        }
+        RouteDirection[] route = new RouteDirection[steps];
+        int v = DESTINATION;
+        for (int i = steps - 1; i >= 0; i--) {
+            int e = predEdge[v];
+            int u = predNode[v];
+            route[i] = new RouteDirection(names[u], names[v], weights[e], cartEdges.get(e));
+            v = u;
+        }
+        return new ArrayList<>(Arrays.asList(route));
+    }
+
+    private static double travelTime(int x1, int y1, int x2, int y2, double speed) {
+        double dx = x1 - x2;
+        double dy = y1 - y2;
+        double distance = Math.sqrt(dx * dx + dy * dy);
+        return distance / speed;
+    }
+}
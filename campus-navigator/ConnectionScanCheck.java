@@ -0,0 +1,164 @@
+import java.util.*;
+
+/**
+ * Command line cross-check for ConnectionScanRouter. Each .dat file given as an argument is
+ * loaded, lines without a timetable get a random one, and random start/destination pairs inside
+ * the campus are routed:
+ * - earliestArrival is compared against a brute-force fixpoint that relaxes every trip in turn
+ *   until no arrival improves, and its journey must add up step by step to its arrival time;
+ * - the departure profile for a one-hour window is compared against an earliest-arrival query
+ *   every 15 seconds across that window.
+ * Exits with status 1 if any query disagrees.
+ */
+public class ConnectionScanCheck {
+    private static final int QUERIES = 30;
+    private static final double WINDOW_MINUTES = 60;
+    private static final double PROFILE_STEP_MINUTES = 0.25;
+    private static final double EPSILON = 1e-9;
+
+    public static void main(String[] args) {
+        Locale.setDefault(new Locale("en", "EN"));
+        boolean allMatch = true;
+        for (String filename : args) {
+            CampusNavigatorNetwork network = new CampusNavigatorApp().readCampusNavigatorNetwork(filename);
+            Random random = new Random(5);
+            for (CartLine line : network.lines) {
+                if (!line.hasTimetable()) {
+                    int first = 360 + random.nextInt(120);
+                    line.setTimetable(first, first + 600 + random.nextInt(300), 3 + random.nextInt(20));
+                }
+            }
+            CartTimetable timetable = CartTimetable.build(network);
+            ConnectionScanRouter router = new ConnectionScanRouter(timetable);
+            CartSegmentGraph graph = timetable.graph;
+            int maxX = 1;
+            int maxY = 1;
+            for (int s = 0; s < graph.stationCount; s++) {
+                maxX = Math.max(maxX, graph.xs[s]);
+                maxY = Math.max(maxY, graph.ys[s]);
+            }
+
+            String mismatch = null;
+            int query = 0;
+            for (; query < QUERIES && mismatch == null; query++) {
+                Point start = query == 0 ? network.startPoint.coordinates : new Point(random.nextInt(maxX + 1), random.nextInt(maxY + 1));
+                Point destination = query == 0 ? network.destinationPoint.coordinates : new Point(random.nextInt(maxX + 1), random.nextInt(maxY + 1));
+                double departure = 400 + random.nextInt(700) + random.nextDouble();
+                double from = 420 + random.nextInt(600);
+                mismatch = check(router, start, destination, departure, from, from + WINDOW_MINUTES);
+            }
+            if (mismatch != null) {
+                allMatch = false;
+                System.out.printf("%s query %d MISMATCH: %s%n", filename, query, mismatch);
+            } else {
+                System.out.printf("%s OK (%d connections, %d trips, %d queries)%n",
+                        filename, timetable.connectionCount(), timetable.tripCount, query);
+            }
+        }
+        if (!allMatch) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return a description of the first disagreement for this start/destination pair, or null
+     */
+    public static String check(ConnectionScanRouter router, Point start, Point destination,
+                               double departureTime, double from, double to) {
+        Journey journey = router.earliestArrival(start, destination, departureTime);
+        String broken = inconsistentStep(journey);
+        if (broken != null) {
+            return broken + System.lineSeparator() + journey;
+        }
+        double expected = bruteForceArrival(router, start, destination, departureTime);
+        if (Math.abs(expected - journey.arrivalTime) > EPSILON) {
+            return String.format("earliest arrival leaving (%d, %d) at %.3f expected %.6f but was %.6f",
+                    start.x, start.y, departureTime, expected, journey.arrivalTime);
+        }
+        DepartureProfile profile = router.profile(start, destination, from, to);
+        for (double time = from; time <= to; time += PROFILE_STEP_MINUTES) {
+            double query = router.earliestArrival(start, destination, time).arrivalTime;
+            double fromProfile = profile.arrivalWhenLeavingAt(time);
+            if (Math.abs(query - fromProfile) > EPSILON) {
+                return String.format("profile leaving (%d, %d) at %.2f gives %.6f but earliestArrival %.6f",
+                        start.x, start.y, time, fromProfile, query);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return a description of the first step that leaves before the previous one ends, or of an
+     * arrival time that the steps do not add up to; null if the journey is consistent
+     */
+    private static String inconsistentStep(Journey journey) {
+        double time = journey.departureTime;
+        for (int i = 0; i < journey.steps.size(); i++) {
+            if (journey.stepDepartures[i] < time - EPSILON) {
+                return String.format("step %d leaves at %.6f before the previous one ends at %.6f",
+                        i + 1, journey.stepDepartures[i], time);
+            }
+            time = journey.stepDepartures[i] + journey.steps.get(i).duration;
+        }
+        if (Math.abs(time - journey.arrivalTime) > 1e-6) {
+            return String.format("steps end at %.6f but the arrival is %.6f", time, journey.arrivalTime);
+        }
+        return null;
+    }
+
+    /**
+     * Earliest arrival by rescanning every trip until nothing improves: a trip is boarded at the
+     * first of its connections whose station is reached in time, and every cart arrival lets the
+     * rider walk on to all stations within the transfer limit. Quadratic in the station count
+     * per improvement, so only meant for checking.
+     */
+    static double bruteForceArrival(ConnectionScanRouter router, Point start, Point destination, double departureTime) {
+        CartTimetable t = router.getTimetable();
+        CartSegmentGraph g = t.graph;
+        int m = g.stationCount;
+        double speed = g.walkingSpeed;
+        double[] reached = new double[m];
+        double[] cartArrival = new double[m];
+        Arrays.fill(cartArrival, Double.POSITIVE_INFINITY);
+        for (int s = 0; s < m; s++) {
+            reached[s] = departureTime + CartSegmentGraph.travelTime(start.x, start.y, g.xs[s], g.ys[s], speed);
+        }
+        Map<Integer, List<Integer>> connectionsByTrip = new TreeMap<>();
+        for (int c = 0; c < t.connectionCount(); c++) {
+            connectionsByTrip.computeIfAbsent(t.trips[c], trip -> new ArrayList<>()).add(c);
+        }
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (List<Integer> connections : connectionsByTrip.values()) {
+                boolean seated = false;
+                for (int c : connections) {
+                    if (t.departureTimes[c] < departureTime) {
+                        continue;
+                    }
+                    seated |= reached[t.departureStations[c]] <= t.departureTimes[c];
+                    int v = t.arrivalStations[c];
+                    if (!seated || t.arrivalTimes[c] >= cartArrival[v]) {
+                        continue;
+                    }
+                    cartArrival[v] = t.arrivalTimes[c];
+                    reached[v] = Math.min(reached[v], cartArrival[v]);
+                    changed = true;
+                    for (int u = 0; u < m; u++) {
+                        double walk = CartSegmentGraph.travelTime(g.xs[v], g.ys[v], g.xs[u], g.ys[u], speed);
+                        if (walk <= ConnectionScanRouter.DEFAULT_MAX_TRANSFER_MINUTES) {
+                            reached[u] = Math.min(reached[u], cartArrival[v] + walk);
+                        }
+                    }
+                }
+            }
+        }
+
+        double best = departureTime + CartSegmentGraph.travelTime(start.x, start.y, destination.x, destination.y, speed);
+        for (int s = 0; s < m; s++) {
+            best = Math.min(best, cartArrival[s] + CartSegmentGraph.travelTime(g.xs[s], g.ys[s], destination.x, destination.y, speed));
+        }
+        return best;
+    }
+}
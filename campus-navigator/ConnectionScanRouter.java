@@ -0,0 +1,313 @@
+import java.util.*;
+
+/**
+ * Timetable-aware routing with the Connection Scan Algorithm over a CartTimetable. Riders walk
+ * straight from the origin to any station and from any station to the destination, and may walk
+ * between two cart rides for at most maxTransferMinutes; walking straight to the destination is
+ * always an option. Boarding needs no spare time, so a cart can be caught at the minute it leaves.
+ *
+ * earliestArrival scans the connections once in departure order from the requested time and
+ * stops as soon as no later connection can beat the best arrival found. profile scans them once
+ * in reverse order and yields the best departures for a whole time window, instead of one
+ * earliest-arrival query per minute. Every call works on its own arrays, so one router can be
+ * shared between threads.
+ */
+public class ConnectionScanRouter {
+    public static final double DEFAULT_MAX_TRANSFER_MINUTES = 5.0;
+
+    private static final int FROM_ORIGIN = -1;
+
+    private final CartTimetable timetable;
+    private final CartSegmentGraph graph;
+    private final double maxTransferMinutes;
+
+    public ConnectionScanRouter(CartTimetable timetable) {
+        this(timetable, DEFAULT_MAX_TRANSFER_MINUTES);
+    }
+
+    public ConnectionScanRouter(CartTimetable timetable, double maxTransferMinutes) {
+        this.timetable = timetable;
+        this.graph = timetable.graph;
+        this.maxTransferMinutes = maxTransferMinutes;
+    }
+
+    public CartTimetable getTimetable() {
+        return timetable;
+    }
+
+    /**
+     * @param departureTime minutes after midnight at which the rider leaves start
+     * @return the journey that reaches destination first
+     */
+    public Journey earliestArrival(Point start, Point destination, double departureTime) {
+        return earliestArrival(start, destination, departureTime, new SearchStats());
+    }
+
+    /**
+     * Same as earliestArrival(start, destination, departureTime), counting scanned connections as
+     * relaxed edges and improved stations as settled nodes in stats.
+     */
+    public Journey earliestArrival(Point start, Point destination, double departureTime, SearchStats stats) {
+        CartTimetable t = timetable;
+        int m = graph.stationCount;
+        double speed = graph.walkingSpeed;
+        double[] arrival = new double[m];
+        double[] cartArrival = new double[m];
+        int[] reachedBy = new int[m];
+        boolean[] walked = new boolean[m];
+        int[] boarded = new int[t.tripCount];
+        int[] nearby = new int[m];
+        Arrays.fill(boarded, -1);
+
+        for (int s = 0; s < m; s++) {
+            arrival[s] = departureTime + walk(start.x, start.y, s);
+            cartArrival[s] = Double.POSITIVE_INFINITY;
+            reachedBy[s] = FROM_ORIGIN;
+        }
+        double best = departureTime + CartSegmentGraph.travelTime(start.x, start.y, destination.x, destination.y, speed);
+        int bestConnection = -1;
+
+        for (int c = t.firstDepartureAtOrAfter(departureTime); c < t.connectionCount(); c++) {
+            if (t.departureTimes[c] >= best) {
+                break;
+            }
+            stats.relaxedEdges++;
+            int trip = t.trips[c];
+            if (boarded[trip] < 0) {
+                if (arrival[t.departureStations[c]] > t.departureTimes[c]) {
+                    continue;
+                }
+                boarded[trip] = c;
+            }
+            int v = t.arrivalStations[c];
+            double time = t.arrivalTimes[c];
+            // Walking on after this cart can pay off even when v itself was reached earlier on foot
+            if (time >= cartArrival[v]) {
+                continue;
+            }
+            stats.settledNodes++;
+            cartArrival[v] = time;
+            if (time < arrival[v]) {
+                arrival[v] = time;
+                reachedBy[v] = c;
+                walked[v] = false;
+            }
+            double finish = time + walk(destination.x, destination.y, v);
+            if (finish < best) {
+                best = finish;
+                bestConnection = c;
+            }
+            double radius = Math.min(maxTransferMinutes, best - time) * speed;
+            int count = graph.grid.withinRadius(graph.xs[v], graph.ys[v], radius, nearby);
+            for (int i = 0; i < count; i++) {
+                int u = nearby[i];
+                double transfer = time + walk(graph.xs[v], graph.ys[v], u);
+                if (u != v && transfer < arrival[u]) {
+                    arrival[u] = transfer;
+                    reachedBy[u] = c;
+                    walked[u] = true;
+                }
+            }
+        }
+        return journey(start, destination, departureTime, best, bestConnection, reachedBy, walked, boarded);
+    }
+
+    /**
+     * @param from minutes after midnight of the earliest departure of interest
+     * @param to minutes after midnight of the latest departure of interest
+     * @return every departure from start within the window after which no later one arrives
+     * at destination as early
+     */
+    public DepartureProfile profile(Point start, Point destination, double from, double to) {
+        CartTimetable t = timetable;
+        int m = graph.stationCount;
+        double speed = graph.walkingSpeed;
+        double direct = CartSegmentGraph.travelTime(start.x, start.y, destination.x, destination.y, speed);
+        double[] walkFromStart = new double[m];
+        double[] walkToDestination = new double[m];
+        for (int s = 0; s < m; s++) {
+            walkFromStart[s] = walk(start.x, start.y, s);
+            walkToDestination[s] = walk(destination.x, destination.y, s);
+        }
+        double[] tripArrival = new double[t.tripCount];
+        Arrays.fill(tripArrival, Double.POSITIVE_INFINITY);
+        StationProfile[] stations = new StationProfile[m];
+        StationProfile[] boardings = new StationProfile[m];
+        StationProfile origin = new StationProfile();
+        int[] nearby = new int[m];
+        double transferRadius = maxTransferMinutes * speed;
+
+        // Walking straight there beats any cart leaving after to + direct
+        int first = t.firstDepartureAtOrAfter(from);
+        int end = t.firstDepartureAtOrAfter(to + direct);
+        for (int c = end - 1; c >= first; c--) {
+            int v = t.arrivalStations[c];
+            double arrive = t.arrivalTimes[c];
+            double tau = Math.min(arrive + walkToDestination[v], tripArrival[t.trips[c]]);
+            if (stations[v] != null) {
+                tau = Math.min(tau, stations[v].arrivalAt(arrive));
+            }
+            tripArrival[t.trips[c]] = tau;
+
+            int u = t.departureStations[c];
+            double leave = t.departureTimes[c];
+            // A cart caught only by leaving after the window can still be caught by leaving at its end
+            double leaveStart = Math.min(leave - walkFromStart[u], to);
+            if (leaveStart >= from && tau < leaveStart + direct) {
+                origin.add(leaveStart, tau);
+            }
+            if (stations[u] == null) {
+                stations[u] = new StationProfile();
+                boardings[u] = new StationProfile();
+            }
+            stations[u].add(leave, tau);
+            // Walks to u are added for every boarding that is not beaten by another boarding at u;
+            // an entry that only walks on from u says nothing about walking to u first
+            if (!boardings[u].add(leave, tau)) {
+                continue;
+            }
+            int count = graph.grid.withinRadius(graph.xs[u], graph.ys[u], transferRadius, nearby);
+            for (int i = 0; i < count; i++) {
+                int w = nearby[i];
+                if (w == u) {
+                    continue;
+                }
+                if (stations[w] == null) {
+                    stations[w] = new StationProfile();
+                    boardings[w] = new StationProfile();
+                }
+                stations[w].add(leave - walk(graph.xs[u], graph.ys[u], w), tau);
+            }
+        }
+
+        int n = origin.size;
+        double[] departures = new double[n];
+        double[] arrivals = new double[n];
+        for (int i = 0; i < n; i++) {
+            departures[i] = origin.departures[n - 1 - i];
+            arrivals[i] = origin.arrivals[n - 1 - i];
+        }
+        return new DepartureProfile(from, to, departures, arrivals, direct);
+    }
+
+    private double walk(int x, int y, int station) {
+        return CartSegmentGraph.travelTime(x, y, graph.xs[station], graph.ys[station], graph.walkingSpeed);
+    }
+
+    /**
+     * Follows the pointers back from the last cart connection before the walk to the destination.
+     */
+    private Journey journey(Point start, Point destination, double departureTime, double arrivalTime, int lastConnection,
+                            int[] reachedBy, boolean[] walked, int[] boarded) {
+        CartTimetable t = timetable;
+        List<RouteDirection> steps = new ArrayList<>();
+        List<Double> times = new ArrayList<>();
+        if (lastConnection < 0) {
+            steps.add(new RouteDirection(CartSegmentGraph.START_NAME, CartSegmentGraph.DESTINATION_NAME,
+                    arrivalTime - departureTime, false));
+            times.add(departureTime);
+        } else {
+            int last = t.arrivalStations[lastConnection];
+            double walkEnd = walk(destination.x, destination.y, last);
+            steps.add(new RouteDirection(graph.names[last], CartSegmentGraph.DESTINATION_NAME, walkEnd, false));
+            times.add(t.arrivalTimes[lastConnection]);
+            int exit = lastConnection;
+            int s;
+            while (true) {
+                int trip = t.trips[exit];
+                int enter = boarded[trip];
+                for (int c = exit; c >= enter; c--) {
+                    if (t.trips[c] == trip) {
+                        steps.add(new RouteDirection(graph.names[t.departureStations[c]], graph.names[t.arrivalStations[c]],
+                                t.arrivalTimes[c] - t.departureTimes[c], true));
+                        times.add(t.departureTimes[c]);
+                    }
+                }
+                s = t.departureStations[enter];
+                if (reachedBy[s] == FROM_ORIGIN) {
+                    break;
+                }
+                exit = reachedBy[s];
+                if (walked[s]) {
+                    int from = t.arrivalStations[exit];
+                    steps.add(new RouteDirection(graph.names[from], graph.names[s],
+                            walk(graph.xs[from], graph.ys[from], s), false));
+                    times.add(t.arrivalTimes[exit]);
+                }
+            }
+            steps.add(new RouteDirection(CartSegmentGraph.START_NAME, graph.names[s], walk(start.x, start.y, s), false));
+            times.add(departureTime);
+        }
+        Collections.reverse(steps);
+        Collections.reverse(times);
+        double[] departures = new double[times.size()];
+        for (int i = 0; i < departures.length; i++) {
+            departures[i] = times.get(i);
+        }
+        return new Journey(departureTime, arrivalTime, steps, departures);
+    }
+
+    /**
+     * Pareto set of (departure, arrival at the destination) pairs for leaving one station, kept
+     * in descending departure order with descending arrivals. The reverse scan mostly adds
+     * earlier departures, which go to the end.
+     */
+    private static final class StationProfile {
+        double[] departures = new double[4];
+        double[] arrivals = new double[4];
+        int size;
+
+        /**
+         * @return the earliest arrival when at the station at the given time
+         */
+        double arrivalAt(double time) {
+            int q = countAtOrAfter(time);
+            return q == 0 ? Double.POSITIVE_INFINITY : arrivals[q - 1];
+        }
+
+        /**
+         * @return false if an existing pair leaves no earlier and arrives no later
+         */
+        boolean add(double departure, double arrival) {
+            int q = countAtOrAfter(departure);
+            if (q > 0 && arrivals[q - 1] <= arrival) {
+                return false;
+            }
+            int dominated = 0;
+            while (q + dominated < size && arrivals[q + dominated] >= arrival) {
+                dominated++;
+            }
+            if (dominated == 0) {
+                if (size == departures.length) {
+                    departures = Arrays.copyOf(departures, size * 2);
+                    arrivals = Arrays.copyOf(arrivals, size * 2);
+                }
+                System.arraycopy(departures, q, departures, q + 1, size - q);
+                System.arraycopy(arrivals, q, arrivals, q + 1, size - q);
+                size++;
+            } else if (dominated > 1) {
+                int tail = q + dominated;
+                System.arraycopy(departures, tail, departures, q + 1, size - tail);
+                System.arraycopy(arrivals, tail, arrivals, q + 1, size - tail);
+                size -= dominated - 1;
+            }
+            departures[q] = departure;
+            arrivals[q] = arrival;
+            return true;
+        }
+
+        private int countAtOrAfter(double time) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (departures[mid] >= time) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+}
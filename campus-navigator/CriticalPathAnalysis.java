@@ -0,0 +1,24 @@
+/**
+ * Result of a critical-path pass over a TaskGraph. Arrays are indexed by position in the task
+ * list. A task with zero slack cannot start later without delaying the whole project;
+ * criticalChain lists one such chain, in order, ending with the task that finishes last.
+ */
+public class CriticalPathAnalysis {
+    public final int duration;
+    public final int[] earliestStart;
+    public final int[] latestStart;
+    public final int[] slack;
+    public final int[] criticalChain;
+
+    public CriticalPathAnalysis(int duration, int[] earliestStart, int[] latestStart, int[] slack, int[] criticalChain) {
+        this.duration = duration;
+        this.earliestStart = earliestStart;
+        this.latestStart = latestStart;
+        this.slack = slack;
+        this.criticalChain = criticalChain;
+    }
+
+    public boolean isCritical(int task) {
+        return slack[task] == 0;
+    }
+}
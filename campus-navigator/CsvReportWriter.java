@@ -0,0 +1,96 @@
+import java.io.Writer;
+
+/**
+ * Renders RFC 4180 CSV. Schedules and routes have different columns, so each kind of row gets
+ * its header line before the first row of that kind:
+ * project,task_id,description,start,end and step,mode,from,to,minutes.
+ * Lines end with CRLF and minutes have two decimals like the plain text report.
+ */
+public class CsvReportWriter extends BufferedReportWriter {
+    private String project;
+    private boolean taskHeaderWritten;
+    private boolean stepHeaderWritten;
+
+    public CsvReportWriter(Writer out) {
+        super(out);
+    }
+
+    @Override
+    public void beginProject(String name) {
+        project = name;
+        if (!taskHeaderWritten) {
+            append("project,task_id,description,start,end\r\n");
+            taskHeaderWritten = true;
+        }
+    }
+
+    @Override
+    public void task(int index, String description, int start, int end) {
+        appendField(project);
+        append(',');
+        append(index);
+        append(',');
+        appendField(description);
+        append(',');
+        append(start);
+        append(',');
+        append(end);
+        append("\r\n");
+    }
+
+    @Override
+    public void endProject(int completionDay) {
+        project = null;
+    }
+
+    @Override
+    public void beginRoute(double totalMinutes) {
+        if (!stepHeaderWritten) {
+            append("step,mode,from,to,minutes\r\n");
+            stepHeaderWritten = true;
+        }
+    }
+
+    @Override
+    public void routeStep(int stepNumber, boolean cartRide, String from, String to, double minutes) {
+        append(stepNumber);
+        append(cartRide ? ",cart," : ",walk,");
+        appendField(from);
+        append(',');
+        appendField(to);
+        append(',');
+        appendFixed2(minutes);
+        append("\r\n");
+    }
+
+    @Override
+    public void endRoute() {
+    }
+
+    /**
+     * Quotes the value if it contains a comma, quote or line break, doubling inner quotes.
+     */
+    private void appendField(String value) {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            append(value);
+            return;
+        }
+        append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                append('"');
+            }
+            append(c);
+        }
+        append('"');
+    }
+}
@@ -0,0 +1,25 @@
+/**
+ * Thrown when the dependencies of a project's tasks form a cycle, so no schedule exists.
+ * cycle lists the task ids along one such cycle, starting and ending with the same id.
+ */
+public class CyclicDependencyException extends RuntimeException {
+    static final long serialVersionUID = 117L;
+
+    public final int[] cycle;
+
+    public CyclicDependencyException(int[] cycle) {
+        super("Cyclic task dependencies: " + describe(cycle));
+        this.cycle = cycle;
+    }
+
+    private static String describe(int[] cycle) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < cycle.length; i++) {
+            if (i > 0) {
+                sb.append(" -> ");
+            }
+            sb.append(cycle[i]);
+        }
+        return sb.toString();
+    }
+}
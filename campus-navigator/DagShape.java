@@ -0,0 +1,57 @@
+import java.util.*;
+
+/**
+ * Dependency layouts for synthetic projects. Task t may only depend on tasks with a lower id,
+ * so every shape is acyclic.
+ */
+public enum DagShape {
+    /** Every task waits for the one before it: one long critical path. */
+    CHAIN,
+    /** Every task except the first waits only for task 0: maximal parallelism. */
+    WIDE,
+    /** Tasks come in layers of about the square root of the task count; each depends on up to three tasks of the layer before. */
+    LAYERED,
+    /** Each task depends on up to three random earlier tasks. */
+    RANDOM;
+
+    /**
+     * @return the ids task depends on, without repeats
+     */
+    public int[] dependencies(int task, int taskCount, Random random) {
+        if (task == 0) {
+            return new int[0];
+        }
+        switch (this) {
+            case CHAIN:
+                return new int[]{task - 1};
+            case WIDE:
+                return new int[]{0};
+            case LAYERED: {
+                int width = Math.max(1, (int) Math.sqrt(taskCount));
+                int layer = task / width;
+                if (layer == 0) {
+                    return new int[0];
+                }
+                return pick((layer - 1) * width, width, 1 + random.nextInt(3), random);
+            }
+            default:
+                return pick(0, task, random.nextInt(Math.min(task, 3) + 1), random);
+        }
+    }
+
+    private static int[] pick(int first, int range, int count, Random random) {
+        int[] picked = new int[Math.min(count, range)];
+        int found = 0;
+        while (found < picked.length) {
+            int id = first + random.nextInt(range);
+            boolean repeat = false;
+            for (int i = 0; i < found && !repeat; i++) {
+                repeat = picked[i] == id;
+            }
+            if (!repeat) {
+                picked[found++] = id;
+            }
+        }
+        return picked;
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Result of a ConnectionScanRouter profile query: the Pareto-optimal departures from an origin
+ * within a time window, each with the earliest arrival at the destination. Departures are
+ * ascending and so are arrivals; leaving any later than departures[i] never arrives before
+ * arrivals[i]. Only departures that beat walking straight to the destination are listed;
+ * arrivalWhenLeavingAt also considers that walk.
+ */
+public class DepartureProfile {
+    public final double from;
+    public final double to;
+    public final double[] departures;
+    public final double[] arrivals;
+    /** Minutes of the direct walk, the fallback for any departure. */
+    public final double walkingTime;
+
+    DepartureProfile(double from, double to, double[] departures, double[] arrivals, double walkingTime) {
+        this.from = from;
+        this.to = to;
+        this.departures = departures;
+        this.arrivals = arrivals;
+        this.walkingTime = walkingTime;
+    }
+
+    public int size() {
+        return departures.length;
+    }
+
+    /**
+     * @return the earliest arrival when leaving the origin at the given time within the window
+     */
+    public double arrivalWhenLeavingAt(double time) {
+        double best = time + walkingTime;
+        int lo = 0;
+        int hi = departures.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (departures[mid] < time) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo < departures.length ? Math.min(best, arrivals[lo]) : best;
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d departures between %s and %s%n", size(), CartTimetable.formatTime(from), CartTimetable.formatTime(to)));
+        for (int i = 0; i < departures.length; i++) {
+            sb.append(String.format("leave %s, arrive %s (%.2f minutes)%n", CartTimetable.formatTime(departures[i]),
+                    CartTimetable.formatTime(arrivals[i]), arrivals[i] - departures[i]));
+        }
+        return sb.toString();
+    }
+}
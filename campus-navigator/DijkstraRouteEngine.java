@@ -0,0 +1,106 @@
+import java.util.*;
+
+/**
+ * Dijkstra over a CartSegmentGraph with implicit walking edges. When a node is settled its cart
+ * segments are relaxed from the graph and every other node is relaxed on foot, with the walking
+ * time computed from the coordinates. A pair joined by a cart segment only ever uses the cart
+ * time, as in CampusNavigatorApp's all-pairs map.
+ */
+public class DijkstraRouteEngine implements RouteEngine {
+
+    @Override
+    public List<RouteDirection> findRoute(CartSegmentGraph graph, Point start, Point destination, SearchStats stats) {
+        RouteQuery query = graph.query(start, destination);
+        int[] predecessors = new int[query.nodeCount];
+        search(query, potentials(query), new double[query.nodeCount], predecessors, stats);
+        return query.directions(predecessors);
+    }
+
+    /**
+     * One-to-all search: the fastest travel time from source to every cart station.
+     * @return an array indexed by station id, with the source itself at index stationCount
+     */
+    public double[] travelTimesFrom(CartSegmentGraph graph, Point source, SearchStats stats) {
+        RouteQuery query = graph.query(source, null);
+        double[] dist = new double[query.nodeCount];
+        search(query, null, dist, new int[query.nodeCount], stats);
+        return dist;
+    }
+
+    /**
+     * One-to-all search between cart stations only, starting at the given station.
+     */
+    public void travelTimesFromStation(CartSegmentGraph graph, int station, double[] dist, int[] predecessors,
+                                       SearchStats stats) {
+        search(new RouteQuery(graph, station), null, dist, predecessors, stats);
+    }
+
+    /**
+     * Fills dist and predecessors from query.source, stopping early once query.target is settled.
+     * With a null potential this is plain Dijkstra, otherwise nodes are ordered by dist + potential.
+     */
+    void search(RouteQuery query, double[] potential, double[] dist, int[] predecessors, SearchStats stats) {
+        CartSegmentGraph graph = query.graph;
+        int n = query.nodeCount;
+        int[] cartMark = new int[n];
+        boolean[] settled = new boolean[n];
+        Arrays.fill(dist, Double.MAX_VALUE);
+        Arrays.fill(predecessors, -1);
+        dist[query.source] = 0.0;
+
+        IndexedMinHeap queue = new IndexedMinHeap(n);
+        queue.insertOrDecrease(query.source, 0.0);
+        stats.heapPushes++;
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            settled[u] = true;
+            stats.settledNodes++;
+            if (u == query.target) {
+                break;
+            }
+            double du = dist[u];
+
+            if (u < graph.stationCount) {
+                for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                    int v = graph.targets[e];
+                    cartMark[v] = u + 1;
+                    if (settled[v]) {
+                        continue;
+                    }
+                    stats.relaxedEdges++;
+                    double alt = du + graph.weights[e];
+                    if (alt < dist[v]) {
+                        dist[v] = alt;
+                        predecessors[v] = u;
+                        queue.insertOrDecrease(v, potential == null ? alt : alt + potential[v]);
+                        stats.heapPushes++;
+                    }
+                }
+            }
+
+            int ux = query.x(u);
+            int uy = query.y(u);
+            for (int v = 0; v < n; v++) {
+                if (v == u || settled[v] || cartMark[v] == u + 1) {
+                    continue;
+                }
+                stats.relaxedEdges++;
+                double alt = du + CartSegmentGraph.travelTime(ux, uy, query.x(v), query.y(v), graph.walkingSpeed);
+                if (alt < dist[v]) {
+                    dist[v] = alt;
+                    predecessors[v] = u;
+                    queue.insertOrDecrease(v, potential == null ? alt : alt + potential[v]);
+                    stats.heapPushes++;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return a lower bound on the remaining time from every node to the destination, or null
+     * for a plain Dijkstra search
+     */
+    protected double[] potentials(RouteQuery query) {
+        return null;
+    }
+}
@@ -0,0 +1,329 @@
+import java.util.*;
+
+/**
+ * Keeps the earliest schedule of a project up to date while task durations and dependencies
+ * change. Tasks are addressed by task id; results use positions in the task list, like
+ * TaskGraph. A topological rank per task is maintained with the Pearce-Kelly algorithm, so an
+ * added dependency only reorders the tasks between its two ends, and every change re-propagates
+ * earliest starts in rank order through the affected downstream tasks only.
+ *
+ * Each update returns the positions of the tasks whose start or end day changed, in
+ * topological order. Not thread-safe.
+ */
+public class IncrementalScheduler {
+    private final TaskGraph graph;
+    private final int[] durations;
+    private final int[] earliest;
+    private final int[][] successors;
+    private final int[] successorCount;
+    private final int[][] prerequisites;
+    private final int[] prerequisiteCount;
+    private final int[] rank;
+    private final int[] taskAtRank;
+
+    // Scratch state reused by every update
+    private final IndexedMinHeap queue;
+    private final int[] visitMark;
+    private int visitStamp;
+    private final int[] parent;
+    private final int[] stack;
+    private final int[] forward;
+    private final int[] backward;
+    private int[] changed = new int[16];
+    private int changedCount;
+
+    public IncrementalScheduler(List<Task> tasks) {
+        this(TaskGraph.compile(tasks));
+    }
+
+    public IncrementalScheduler(TaskGraph graph) {
+        int n = graph.taskCount;
+        this.graph = graph;
+        this.durations = graph.durations.clone();
+        this.earliest = graph.earliestStart();
+        this.successors = new int[n][];
+        this.successorCount = new int[n];
+        this.prerequisites = new int[n][];
+        this.prerequisiteCount = new int[n];
+        for (int u = 0; u < n; u++) {
+            successors[u] = Arrays.copyOfRange(graph.successors, graph.offsets[u], graph.offsets[u + 1]);
+            successorCount[u] = successors[u].length;
+            for (int v : successors[u]) {
+                prerequisiteCount[v]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            prerequisites[v] = new int[prerequisiteCount[v]];
+            prerequisiteCount[v] = 0;
+        }
+        for (int u = 0; u < n; u++) {
+            for (int v : successors[u]) {
+                prerequisites[v][prerequisiteCount[v]++] = u;
+            }
+        }
+        this.rank = new int[n];
+        this.taskAtRank = graph.order.clone();
+        for (int r = 0; r < n; r++) {
+            rank[taskAtRank[r]] = r;
+        }
+        this.queue = new IndexedMinHeap(n);
+        this.visitMark = new int[n];
+        this.parent = new int[n];
+        this.stack = new int[n];
+        this.forward = new int[n];
+        this.backward = new int[n];
+    }
+
+    public int taskCount() {
+        return durations.length;
+    }
+
+    public int positionOf(int taskId) {
+        return graph.positionOf(taskId);
+    }
+
+    public int getEarliestStart(int position) {
+        return earliest[position];
+    }
+
+    public int getEnd(int position) {
+        return earliest[position] + durations[position];
+    }
+
+    public int getDuration(int position) {
+        return durations[position];
+    }
+
+    /**
+     * @return a copy of the current earliest start days, indexed by position in the task list
+     */
+    public int[] getEarliestSchedule() {
+        return earliest.clone();
+    }
+
+    /**
+     * Changes the duration of a task and moves its dependents accordingly.
+     * @return positions of the tasks whose start or end day changed
+     */
+    public int[] setDuration(int taskId, int duration) {
+        int u = positionOf(taskId);
+        beginUpdate();
+        if (durations[u] != duration) {
+            durations[u] = duration;
+            markChanged(u);
+            enqueueSuccessors(u);
+            propagate();
+        }
+        return endUpdate();
+    }
+
+    /**
+     * Makes a task wait for another one. Only tasks ranked between the two are reordered.
+     * @return positions of the tasks whose start or end day changed
+     * @throws CyclicDependencyException if the prerequisite already depends on the task;
+     *         the scheduler is left unchanged in that case
+     */
+    public int[] addDependency(int taskId, int prerequisiteId) {
+        int v = positionOf(taskId);
+        int u = positionOf(prerequisiteId);
+        if (rank[u] >= rank[v]) {
+            reorder(u, v);
+        }
+        successors[u] = append(successors[u], successorCount[u]++, v);
+        prerequisites[v] = append(prerequisites[v], prerequisiteCount[v]++, u);
+        beginUpdate();
+        queue.insertOrDecrease(v, rank[v]);
+        propagate();
+        return endUpdate();
+    }
+
+    /**
+     * Removes one occurrence of a dependency. Removing an edge never breaks the topological order.
+     * @return positions of the tasks whose start or end day changed
+     * @throws IllegalArgumentException if the task does not depend on the prerequisite
+     */
+    public int[] removeDependency(int taskId, int prerequisiteId) {
+        int v = positionOf(taskId);
+        int u = positionOf(prerequisiteId);
+        if (!remove(prerequisites[v], prerequisiteCount[v], u)) {
+            throw new IllegalArgumentException("Task " + taskId + " does not depend on task " + prerequisiteId);
+        }
+        prerequisiteCount[v]--;
+        remove(successors[u], successorCount[u]--, v);
+        beginUpdate();
+        queue.insertOrDecrease(v, rank[v]);
+        propagate();
+        return endUpdate();
+    }
+
+    /**
+     * Pops tasks in rank order, so every prerequisite of a popped task is final, and recomputes
+     * its start from its prerequisites. Only a task whose start moved passes the change on.
+     */
+    private void propagate() {
+        while (!queue.isEmpty()) {
+            int v = queue.poll();
+            int start = 0;
+            int[] pre = prerequisites[v];
+            for (int i = 0; i < prerequisiteCount[v]; i++) {
+                int u = pre[i];
+                start = Math.max(start, earliest[u] + durations[u]);
+            }
+            if (start != earliest[v]) {
+                earliest[v] = start;
+                markChanged(v);
+                enqueueSuccessors(v);
+            }
+        }
+    }
+
+    private void enqueueSuccessors(int u) {
+        int[] succ = successors[u];
+        for (int i = 0; i < successorCount[u]; i++) {
+            queue.insertOrDecrease(succ[i], rank[succ[i]]);
+        }
+    }
+
+    /**
+     * Pearce-Kelly reordering for a new edge u -> v with rank[u] >= rank[v]. Collects the tasks
+     * reachable from v ranked up to rank[u] and the tasks reaching u ranked from rank[v], then
+     * hands their combined ranks out again, the second group first.
+     */
+    private void reorder(int u, int v) {
+        int lower = rank[v];
+        int upper = rank[u];
+
+        visitStamp++;
+        int forwardCount = 0;
+        int top = 0;
+        stack[top++] = v;
+        visitMark[v] = visitStamp;
+        parent[v] = -1;
+        while (top > 0) {
+            int x = stack[--top];
+            forward[forwardCount++] = x;
+            if (x == u) {
+                throw new CyclicDependencyException(cycleThrough(u, v));
+            }
+            int[] succ = successors[x];
+            for (int i = 0; i < successorCount[x]; i++) {
+                int y = succ[i];
+                if (visitMark[y] != visitStamp && rank[y] <= upper) {
+                    visitMark[y] = visitStamp;
+                    parent[y] = x;
+                    stack[top++] = y;
+                }
+            }
+        }
+
+        int backwardCount = 0;
+        stack[top++] = u;
+        visitMark[u] = visitStamp;
+        while (top > 0) {
+            int x = stack[--top];
+            backward[backwardCount++] = x;
+            int[] pre = prerequisites[x];
+            for (int i = 0; i < prerequisiteCount[x]; i++) {
+                int y = pre[i];
+                if (visitMark[y] != visitStamp && rank[y] >= lower) {
+                    visitMark[y] = visitStamp;
+                    stack[top++] = y;
+                }
+            }
+        }
+
+        sortByRank(forward, forwardCount);
+        sortByRank(backward, backwardCount);
+        int[] ranks = new int[forwardCount + backwardCount];
+        for (int i = 0; i < backwardCount; i++) {
+            ranks[i] = rank[backward[i]];
+        }
+        for (int i = 0; i < forwardCount; i++) {
+            ranks[backwardCount + i] = rank[forward[i]];
+        }
+        Arrays.sort(ranks);
+        for (int i = 0; i < backwardCount; i++) {
+            assignRank(backward[i], ranks[i]);
+        }
+        for (int i = 0; i < forwardCount; i++) {
+            assignRank(forward[i], ranks[backwardCount + i]);
+        }
+    }
+
+    /**
+     * @return task ids of the cycle the edge u -> v would close, in dependency order
+     */
+    private int[] cycleThrough(int u, int v) {
+        int length = 1;
+        for (int x = u; x != v; x = parent[x]) {
+            length++;
+        }
+        int[] cycle = new int[length + 1];
+        cycle[0] = graph.ids[u];
+        int i = length;
+        for (int x = u; ; x = parent[x]) {
+            cycle[i--] = graph.ids[x];
+            if (x == v) {
+                break;
+            }
+        }
+        return cycle;
+    }
+
+    private void sortByRank(int[] tasks, int count) {
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = ((long) rank[tasks[i]] << 32) | tasks[i];
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < count; i++) {
+            tasks[i] = (int) keys[i];
+        }
+    }
+
+    private void assignRank(int task, int r) {
+        rank[task] = r;
+        taskAtRank[r] = task;
+    }
+
+    private void beginUpdate() {
+        changedCount = 0;
+        visitStamp++;
+    }
+
+    private void markChanged(int task) {
+        if (visitMark[task] == visitStamp) {
+            return;
+        }
+        visitMark[task] = visitStamp;
+        if (changedCount == changed.length) {
+            changed = Arrays.copyOf(changed, changedCount * 2);
+        }
+        changed[changedCount++] = task;
+    }
+
+    private int[] endUpdate() {
+        return Arrays.copyOf(changed, changedCount);
+    }
+
+    private static int[] append(int[] values, int count, int value) {
+        if (count == values.length) {
+            values = Arrays.copyOf(values, Math.max(4, count * 2));
+        }
+        values[count] = value;
+        return values;
+    }
+
+    /**
+     * Swaps the first occurrence of value with the last used slot.
+     */
+    private static boolean remove(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                values[i] = values[count - 1];
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,138 @@
+import java.util.Arrays;
+
+/**
+ * d-ary min-heap over dense integer node ids with true decrease-key, binary by default.
+ * Keys and heap positions live in primitive arrays, so pushing, decreasing
+ * and polling never allocate. A wider heap is shallower, which makes decrease-key
+ * cheaper and polling dearer; that pays off on dense graphs, where a search
+ * decreases far more keys than it polls nodes.
+ */
+public class IndexedMinHeap {
+    private final int[] heap;
+    private final int[] positions;
+    private final double[] keys;
+    private final int shift;
+    private int size;
+
+    public IndexedMinHeap(int capacity) {
+        this(capacity, 2);
+    }
+
+    /**
+     * @param arity children per heap node: 2, 4, 8 or any larger power of two
+     */
+    public IndexedMinHeap(int capacity, int arity) {
+        if (arity < 2 || Integer.bitCount(arity) != 1) {
+            throw new IllegalArgumentException("Heap arity must be a power of two of at least 2: " + arity);
+        }
+        this.shift = Integer.numberOfTrailingZeros(arity);
+        this.heap = new int[capacity];
+        this.positions = new int[capacity];
+        this.keys = new double[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int arity() {
+        return 1 << shift;
+    }
+
+    public boolean contains(int node) {
+        return positions[node] >= 0;
+    }
+
+    public double peekKey() {
+        return keys[heap[0]];
+    }
+
+    /**
+     * Inserts the node with the given key, or lowers its key if it is already queued.
+     * Larger keys for a queued node are ignored.
+     */
+    public void insertOrDecrease(int node, double key) {
+        int pos = positions[node];
+        if (pos < 0) {
+            keys[node] = key;
+            heap[size] = node;
+            positions[node] = size;
+            siftUp(size++);
+        } else if (key < keys[node]) {
+            keys[node] = key;
+            siftUp(pos);
+        }
+    }
+
+    /**
+     * Removes and returns the node with the smallest key.
+     */
+    public int poll() {
+        int top = heap[0];
+        positions[top] = -1;
+        size--;
+        if (size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            positions[last] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int pos) {
+        int node = heap[pos];
+        double key = keys[node];
+        while (pos > 0) {
+            int parentPos = (pos - 1) >>> shift;
+            int parent = heap[parentPos];
+            if (keys[parent] <= key) {
+                break;
+            }
+            heap[pos] = parent;
+            positions[parent] = pos;
+            pos = parentPos;
+        }
+        heap[pos] = node;
+        positions[node] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int node = heap[pos];
+        double key = keys[node];
+        int lastParent = (size - 2) >> shift;
+        while (pos <= lastParent) {
+            int first = (pos << shift) + 1;
+            int last = Math.min(size, first + (1 << shift));
+            int child = first;
+            double childKey = keys[heap[first]];
+            for (int c = first + 1; c < last; c++) {
+                double k = keys[heap[c]];
+                if (k < childKey) {
+                    child = c;
+                    childKey = k;
+                }
+            }
+            if (key <= childKey) {
+                break;
+            }
+            heap[pos] = heap[child];
+            positions[heap[pos]] = pos;
+            pos = child;
+        }
+        heap[pos] = node;
+        positions[node] = pos;
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * Result of an IsochroneSearch: the cart stations reachable from an origin within a time budget,
+ * as two parallel arrays ordered by arrival time. Station ids index the CartSegmentGraph arrays,
+ * so names and coordinates are graph.names[id], graph.xs[id] and graph.ys[id].
+ */
+public class Isochrone {
+    public final CartSegmentGraph graph;
+    public final Point origin;
+    public final double minutes;
+    public final int[] stations;
+    public final double[] arrivalTimes;
+
+    Isochrone(CartSegmentGraph graph, Point origin, double minutes, int[] stations, double[] arrivalTimes) {
+        this.graph = graph;
+        this.origin = origin;
+        this.minutes = minutes;
+        this.stations = stations;
+        this.arrivalTimes = arrivalTimes;
+    }
+
+    public int size() {
+        return stations.length;
+    }
+
+    /**
+     * @return the walking area reachable within the budget on a grid of the given cell size in meters
+     */
+    public ReachabilityRaster rasterize(int cellSize) {
+        return ReachabilityRaster.of(this, cellSize);
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d stations within %.2f minutes of (%d, %d)%n", size(), minutes, origin.x, origin.y));
+        for (int i = 0; i < stations.length; i++) {
+            sb.append(String.format("%s at %.2f minutes%n", graph.names[stations[i]], arrivalTimes[i]));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,120 @@
+import java.util.Arrays;
+
+/**
+ * Bounded one-to-all search: every cart station reachable from a point within a time budget,
+ * with the same walk-plus-cart model as DijkstraRouteEngine. The search never queues a node it
+ * cannot reach within the budget, and walking legs are looked up through the graph's StationGrid
+ * within the distance the remaining budget still allows, so its cost follows the size of the
+ * reached region rather than the whole campus.
+ *
+ * The per-station arrays are allocated once and reused through a search counter, so repeated
+ * queries do no O(stationCount) work either. An instance is not thread-safe; give each thread
+ * its own.
+ */
+public class IsochroneSearch {
+    private final CartSegmentGraph graph;
+    private final double[] dist;
+    private final int[] reachedIn;
+    private final int[] cartMark;
+    private final int[] nearby;
+    private final int[] order;
+    private final IndexedMinHeap queue;
+    private int search;
+    private int mark;
+
+    public IsochroneSearch(CartSegmentGraph graph) {
+        int m = graph.stationCount;
+        this.graph = graph;
+        this.dist = new double[m];
+        this.reachedIn = new int[m];
+        this.cartMark = new int[m];
+        this.nearby = new int[m];
+        this.order = new int[m];
+        this.queue = new IndexedMinHeap(m);
+    }
+
+    public CartSegmentGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @param minutes the time budget; stations reached in exactly that time are included
+     * @return the reached stations in order of arrival
+     */
+    public Isochrone reach(Point origin, double minutes) {
+        return reach(origin, minutes, new SearchStats());
+    }
+
+    public Isochrone reach(Point origin, double minutes, SearchStats stats) {
+        if (++search == Integer.MAX_VALUE) {
+            Arrays.fill(reachedIn, 0);
+            search = 1;
+        }
+        queue.clear();
+        double walkingSpeed = graph.walkingSpeed;
+
+        int count = graph.grid.withinRadius(origin.x, origin.y, minutes * walkingSpeed, nearby);
+        for (int i = 0; i < count; i++) {
+            int v = nearby[i];
+            stats.relaxedEdges++;
+            relax(v, CartSegmentGraph.travelTime(origin.x, origin.y, graph.xs[v], graph.ys[v], walkingSpeed),
+                    minutes, stats);
+        }
+
+        int reached = 0;
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            stats.settledNodes++;
+            order[reached++] = u;
+            double du = dist[u];
+            int ux = graph.xs[u];
+            int uy = graph.ys[u];
+            if (++mark == Integer.MAX_VALUE) {
+                Arrays.fill(cartMark, 0);
+                mark = 1;
+            }
+
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                int v = graph.targets[e];
+                cartMark[v] = mark;
+                stats.relaxedEdges++;
+                relax(v, du + graph.weights[e], minutes, stats);
+            }
+
+            count = graph.grid.withinRadius(ux, uy, (minutes - du) * walkingSpeed, nearby);
+            for (int i = 0; i < count; i++) {
+                int v = nearby[i];
+                // A pair joined by a cart segment only uses the cart time, as in the route engines
+                if (v == u || cartMark[v] == mark) {
+                    continue;
+                }
+                stats.relaxedEdges++;
+                relax(v, du + CartSegmentGraph.travelTime(ux, uy, graph.xs[v], graph.ys[v], walkingSpeed),
+                        minutes, stats);
+            }
+        }
+
+        int[] stations = Arrays.copyOf(order, reached);
+        double[] arrivalTimes = new double[reached];
+        for (int i = 0; i < reached; i++) {
+            arrivalTimes[i] = dist[stations[i]];
+        }
+        return new Isochrone(graph, origin, minutes, stations, arrivalTimes);
+    }
+
+    private void relax(int v, double alt, double minutes, SearchStats stats) {
+        if (alt > minutes) {
+            return;
+        }
+        if (reachedIn[v] != search) {
+            reachedIn[v] = search;
+            dist[v] = alt;
+            queue.insertOrDecrease(v, alt);
+            stats.heapPushes++;
+        } else if (alt < dist[v]) {
+            dist[v] = alt;
+            queue.insertOrDecrease(v, alt);
+            stats.heapPushes++;
+        }
+    }
+}
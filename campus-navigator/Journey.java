@@ -0,0 +1,51 @@
+import java.util.*;
+
+/**
+ * A timed route found by ConnectionScanRouter. The steps are the usual RouteDirection
+ * instances, one per walk and one per cart segment, so printRouteDirections can show them;
+ * stepDepartures holds the minute each step starts, so the waiting before a cart is the gap
+ * between the end of one step and the departure of the next.
+ */
+public class Journey {
+    public final double departureTime;
+    public final double arrivalTime;
+    public final List<RouteDirection> steps;
+    public final double[] stepDepartures;
+
+    Journey(double departureTime, double arrivalTime, List<RouteDirection> steps, double[] stepDepartures) {
+        this.departureTime = departureTime;
+        this.arrivalTime = arrivalTime;
+        this.steps = steps;
+        this.stepDepartures = stepDepartures;
+    }
+
+    /**
+     * @return minutes from departure at the origin to arrival at the destination
+     */
+    public double getTravelTime() {
+        return arrivalTime - departureTime;
+    }
+
+    /**
+     * @return minutes spent waiting for carts
+     */
+    public double getWaitingTime() {
+        double moving = 0.0;
+        for (RouteDirection step : steps) {
+            moving += step.duration;
+        }
+        return Math.max(0.0, getTravelTime() - moving);
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Depart %s, arrive %s (%.2f minutes, %.2f waiting)%n", CartTimetable.formatTime(departureTime),
+                CartTimetable.formatTime(arrivalTime), getTravelTime(), getWaitingTime()));
+        for (int i = 0; i < steps.size(); i++) {
+            RouteDirection step = steps.get(i);
+            sb.append(String.format("%s %s from \"%s\" to \"%s\" for %.2f minutes%n", CartTimetable.formatTime(stepDepartures[i]),
+                    step.cartRide ? "Ride the cart" : "Walk", step.startStationName, step.endStationName, step.duration));
+        }
+        return sb.toString();
+    }
+}
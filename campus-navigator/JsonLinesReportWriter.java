@@ -0,0 +1,97 @@
+import java.io.Writer;
+
+/**
+ * Renders one JSON object per line, with a "type" member of "task", "project", "route" or
+ * "step". Task rows carry their project's name; a project row with its completion day
+ * follows the tasks, and a route row with the rounded total precedes its steps.
+ * Minutes have two decimals like the plain text report.
+ */
+public class JsonLinesReportWriter extends BufferedReportWriter {
+    private String project;
+
+    public JsonLinesReportWriter(Writer out) {
+        super(out);
+    }
+
+    @Override
+    public void beginProject(String name) {
+        project = name;
+    }
+
+    @Override
+    public void task(int index, String description, int start, int end) {
+        append("{\"type\":\"task\",\"project\":");
+        appendString(project);
+        append(",\"task_id\":");
+        append(index);
+        append(",\"description\":");
+        appendString(description);
+        append(",\"start\":");
+        append(start);
+        append(",\"end\":");
+        append(end);
+        append("}\n");
+    }
+
+    @Override
+    public void endProject(int completionDay) {
+        append("{\"type\":\"project\",\"project\":");
+        appendString(project);
+        append(",\"completion_day\":");
+        append(completionDay);
+        append("}\n");
+        project = null;
+    }
+
+    @Override
+    public void beginRoute(double totalMinutes) {
+        append("{\"type\":\"route\",\"total_minutes\":");
+        append(Math.round(totalMinutes));
+        append("}\n");
+    }
+
+    @Override
+    public void routeStep(int stepNumber, boolean cartRide, String from, String to, double minutes) {
+        append("{\"type\":\"step\",\"step\":");
+        append(stepNumber);
+        append(cartRide ? ",\"mode\":\"cart\",\"from\":" : ",\"mode\":\"walk\",\"from\":");
+        appendString(from);
+        append(",\"to\":");
+        appendString(to);
+        append(",\"minutes\":");
+        appendFixed2(minutes);
+        append("}\n");
+    }
+
+    @Override
+    public void endRoute() {
+    }
+
+    private void appendString(String value) {
+        if (value == null) {
+            append("null");
+            return;
+        }
+        append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                append('\\');
+                append(c);
+            } else if (c == '\n') {
+                append("\\n");
+            } else if (c == '\r') {
+                append("\\r");
+            } else if (c == '\t') {
+                append("\\t");
+            } else if (c < 0x20) {
+                append("\\u00");
+                append(Character.forDigit(c >> 4, 16));
+                append(Character.forDigit(c & 0xf, 16));
+            } else {
+                append(c);
+            }
+        }
+        append('"');
+    }
+}
@@ -0,0 +1,216 @@
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Named timers and counters for the parsing, routing and scheduling hot paths. Instrumented
+ * code resolves its Timer and Counter objects once, into static fields, and then only calls
+ * start() / stop() and add(). While the registry is disabled those calls read one volatile
+ * flag and return, so instrumentation can stay in place permanently.
+ *
+ * A timer records a LatencyHistogram of nanoseconds and the bytes the calling thread allocated
+ * between start() and stop(). The global registry is enabled with -Dcampus.metrics=true, which
+ * also registers it with JMX; -Dcampus.metrics.dumpSeconds=N additionally prints the report to
+ * STDERR every N seconds.
+ */
+public class MetricsRegistry implements MetricsRegistryMBean {
+    private static final MetricsRegistry GLOBAL = createGlobal();
+
+    private volatile boolean enabled;
+    private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public MetricsRegistry(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public static MetricsRegistry global() {
+        return GLOBAL;
+    }
+
+    private static MetricsRegistry createGlobal() {
+        MetricsRegistry registry = new MetricsRegistry(Boolean.getBoolean("campus.metrics"));
+        if (registry.enabled) {
+            registry.registerMBean();
+            int seconds = Integer.getInteger("campus.metrics.dumpSeconds", 0);
+            if (seconds > 0) {
+                registry.startPeriodicDump(seconds, TimeUnit.SECONDS, System.err);
+            }
+        }
+        return registry;
+    }
+
+    public Timer timer(String name) {
+        return timers.computeIfAbsent(name, key -> new Timer(this));
+    }
+
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> new Counter(this));
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void reset() {
+        for (Timer t : timers.values()) {
+            t.latency.reset();
+            t.allocatedBytes.reset();
+        }
+        for (Counter c : counters.values()) {
+            c.value.reset();
+        }
+    }
+
+    @Override
+    public long getCounter(String name) {
+        Counter c = counters.get(name);
+        return c == null ? 0 : c.get();
+    }
+
+    @Override
+    public long getTimerCount(String name) {
+        Timer t = timers.get(name);
+        return t == null ? 0 : t.latency.getCount();
+    }
+
+    @Override
+    public double getLatencyMicros(String name, double percentile) {
+        Timer t = timers.get(name);
+        return t == null ? 0.0 : t.latency.getValueAtPercentile(percentile) / 1e3;
+    }
+
+    @Override
+    public String getReport() {
+        StringBuilder sb = new StringBuilder();
+        for (String name : new TreeSet<>(timers.keySet())) {
+            Timer t = timers.get(name);
+            LatencyHistogram h = t.latency;
+            long n = h.getCount();
+            sb.append(String.format("%-28s count=%d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus max=%.1fus alloc=%.0fB/op%n",
+                    name, n, h.getMean() / 1e3, h.getValueAtPercentile(50) / 1e3, h.getValueAtPercentile(90) / 1e3,
+                    h.getValueAtPercentile(99) / 1e3, h.getMax() / 1e3, n == 0 ? 0.0 : (double) t.allocatedBytes.sum() / n));
+        }
+        for (String name : new TreeSet<>(counters.keySet())) {
+            sb.append(String.format("%-28s %d%n", name, counters.get(name).get()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Prints the report to out at a fixed rate on a daemon thread until the returned future is cancelled.
+     */
+    public ScheduledFuture<?> startPeriodicDump(long period, TimeUnit unit, PrintStream out) {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ScheduledFuture<?> task = executor.scheduleAtFixedRate(() -> {
+            out.print(getReport());
+            out.flush();
+        }, period, period, unit);
+        executor.shutdown();
+        return task;
+    }
+
+    /**
+     * Registers this registry with the platform MBean server as CampusNavigator:type=Metrics.
+     */
+    public void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("CampusNavigator:type=Metrics"));
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register metrics MBean", e);
+        }
+    }
+
+    /**
+     * Latency histogram plus allocated bytes of one instrumented section.
+     */
+    public static final class Timer {
+        private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+        private final MetricsRegistry registry;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder allocatedBytes = new LongAdder();
+        private final ThreadLocal<long[]> startBytes = ThreadLocal.withInitial(() -> new long[1]);
+
+        private Timer(MetricsRegistry registry) {
+            this.registry = registry;
+        }
+
+        /**
+         * @return a start token for stop(), 0 when the registry is disabled
+         */
+        public long start() {
+            if (!registry.enabled) {
+                return 0;
+            }
+            if (THREADS != null) {
+                startBytes.get()[0] = THREADS.getCurrentThreadAllocatedBytes();
+            }
+            return System.nanoTime() | 1;
+        }
+
+        public void stop(long start) {
+            if (start == 0) {
+                return;
+            }
+            latency.record(System.nanoTime() - start);
+            if (THREADS != null) {
+                allocatedBytes.add(THREADS.getCurrentThreadAllocatedBytes() - startBytes.get()[0]);
+            }
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        public long getAllocatedBytes() {
+            return allocatedBytes.sum();
+        }
+
+        private static com.sun.management.ThreadMXBean allocationCounter() {
+            java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof com.sun.management.ThreadMXBean && threads.isThreadCpuTimeSupported()) {
+                com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+                if (counter.isThreadAllocatedMemorySupported()) {
+                    counter.setThreadAllocatedMemoryEnabled(true);
+                    return counter;
+                }
+            }
+            return null;
+        }
+    }
+
+    public static final class Counter {
+        private final MetricsRegistry registry;
+        private final LongAdder value = new LongAdder();
+
+        private Counter(MetricsRegistry registry) {
+            this.registry = registry;
+        }
+
+        public void add(long delta) {
+            if (registry.enabled) {
+                value.add(delta);
+            }
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+}
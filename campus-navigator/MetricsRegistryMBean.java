@@ -0,0 +1,25 @@
+/**
+ * JMX view of a MetricsRegistry, registered as CampusNavigator:type=Metrics.
+ */
+public interface MetricsRegistryMBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    /**
+     * @return every timer and counter in the text form of the periodic dump
+     */
+    String getReport();
+
+    void reset();
+
+    long getCounter(String name);
+
+    long getTimerCount(String name);
+
+    /**
+     * @return the latency at the given percentile (0 to 100) in microseconds
+     */
+    double getLatencyMicros(String name, double percentile);
+}
@@ -0,0 +1,45 @@
+import java.util.*;
+
+/**
+ * Parsed contents of a navigation .dat file in primitive form. Cart line i owns the stations
+ * lineStart[i] (inclusive) to lineStart[i + 1] (exclusive) of stationXs / stationYs.
+ */
+public class NavigationData {
+    public int numCartLines;
+    public double averageCartSpeed;
+    public int startX, startY;
+    public int destinationX, destinationY;
+    public String[] lineNames;
+    public int[] lineStart;
+    public int[] stationXs;
+    public int[] stationYs;
+    /** Timetable per line in minutes after midnight; a headway of 0 means no timetable. */
+    public int[] lineFirstDeparture;
+    public int[] lineLastDeparture;
+    public int[] lineHeadway;
+
+    public int lineCount() {
+        return lineNames.length;
+    }
+
+    /**
+     * Builds the CartLine objects, naming the stations "<line> Station i" as getCartLines does.
+     * @return List of CartLine instances
+     */
+    public List<CartLine> toCartLines() {
+        List<CartLine> cartLines = new ArrayList<>(lineNames.length);
+        for (int l = 0; l < lineNames.length; l++) {
+            List<Station> stations = new ArrayList<>(lineStart[l + 1] - lineStart[l]);
+            for (int s = lineStart[l]; s < lineStart[l + 1]; s++) {
+                String name = lineNames[l] + " Station " + (s - lineStart[l] + 1);
+                stations.add(new Station(new Point(stationXs[s], stationYs[s]), name));
+            }
+            CartLine line = new CartLine(lineNames[l], stations);
+            if (lineHeadway != null && lineHeadway[l] > 0) {
+                line.setTimetable(lineFirstDeparture[l], lineLastDeparture[l], lineHeadway[l]);
+            }
+            cartLines.add(line);
+        }
+        return cartLines;
+    }
+}
@@ -0,0 +1,385 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Single-pass streaming parser for the navigation .dat format. It reads the file through a
+ * fixed NIO buffer and writes station coordinates straight into the primitive arrays of a
+ * NavigationData, without ever holding the whole file in memory.
+ *
+ * Values use the same syntax as the regular expressions in CampusNavigatorNetwork:
+ * num_cart_lines takes an integer with only spaces or tabs around '=', average_cart_speed an
+ * integer or decimal number, starting_point / destination_point a "(x, y)" pair,
+ * cart_line_name a non-empty double-quoted string and cart_line_stations one or more pairs.
+ * The first occurrence of a scalar wins and the n-th name is paired with the n-th station
+ * block. The optional cart_line_headway = HH:MM HH:MM minutes gives the first and last
+ * departure and the headway of the line named last before it.
+ *
+ * The grammar is narrower than the regular expressions, which find a key anywhere in the file.
+ * A key is only recognised at the start of a line or right after a complete value; lines starting
+ * with any other key, or with a character that cannot start one (comments, say), are skipped.
+ * The pairs of cart_line_stations must be separated by whitespace: a ',' between them is reported
+ * instead of silently ending the list after its first pair as the regular expression did. Any
+ * other malformed value is reported with its line and column.
+ */
+public class NavigationFileParser {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ReadableByteChannel channel;
+    private final String source;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final byte[] text = new byte[256];
+    private byte[] scratch = new byte[256];
+    private int line = 1;
+    private int column = 1;
+    private boolean eof;
+
+    private NavigationFileParser(ReadableByteChannel channel, String source) {
+        this.channel = channel;
+        this.source = source;
+        buffer.flip();
+    }
+
+    public static NavigationData parse(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            return parse(channel, filePath);
+        }
+    }
+
+    public static NavigationData parse(ReadableByteChannel channel, String source) throws IOException {
+        return new NavigationFileParser(channel, source).parseAll();
+    }
+
+    private NavigationData parseAll() throws IOException {
+        boolean hasLineCount = false, hasSpeed = false, hasStart = false, hasDestination = false;
+        NavigationData data = new NavigationData();
+        String[] names = new String[8];
+        int[][] timetables = new int[8][];
+        int nameCount = 0;
+        int[] lineStart = new int[9];
+        int blockCount = 0;
+        int[] xs = new int[64];
+        int[] ys = new int[64];
+        int stationCount = 0;
+
+        while (true) {
+            skipWhitespace(true);
+            if (peek() < 0) {
+                break;
+            }
+            String key = readIdentifier();
+            switch (key) {
+                case "num_cart_lines": {
+                    expectEquals(false);
+                    int value = readInt();
+                    if (!hasLineCount) {
+                        data.numCartLines = value;
+                        hasLineCount = true;
+                    }
+                    break;
+                }
+                case "average_cart_speed": {
+                    expectEquals(true);
+                    double value = readDecimal();
+                    if (!hasSpeed) {
+                        data.averageCartSpeed = value;
+                        hasSpeed = true;
+                    }
+                    break;
+                }
+                case "starting_point":
+                case "destination_point": {
+                    expectEquals(true);
+                    int x = readPointX();
+                    int y = readPointY();
+                    if (key.equals("starting_point") && !hasStart) {
+                        data.startX = x;
+                        data.startY = y;
+                        hasStart = true;
+                    } else if (key.equals("destination_point") && !hasDestination) {
+                        data.destinationX = x;
+                        data.destinationY = y;
+                        hasDestination = true;
+                    }
+                    break;
+                }
+                case "cart_line_name": {
+                    expectEquals(true);
+                    if (nameCount == names.length) {
+                        names = Arrays.copyOf(names, nameCount * 2);
+                        timetables = Arrays.copyOf(timetables, nameCount * 2);
+                    }
+                    names[nameCount++] = readQuoted();
+                    break;
+                }
+                case "cart_line_headway": {
+                    if (nameCount == 0) {
+                        throw error("cart_line_headway before any cart_line_name");
+                    }
+                    expectEquals(false);
+                    int first = readTime();
+                    skipWhitespace(false);
+                    int last = readTime();
+                    skipWhitespace(false);
+                    int headway = readInt();
+                    if (headway < 1 || last < first) {
+                        throw error("invalid timetable");
+                    }
+                    timetables[nameCount - 1] = new int[]{first, last, headway};
+                    break;
+                }
+                case "cart_line_stations": {
+                    expectEquals(true);
+                    if (peek() != '(') {
+                        throw error("expected '(' to start the station list");
+                    }
+                    do {
+                        if (stationCount == xs.length) {
+                            xs = Arrays.copyOf(xs, stationCount * 2);
+                            ys = Arrays.copyOf(ys, stationCount * 2);
+                        }
+                        xs[stationCount] = readPointX();
+                        ys[stationCount] = readPointY();
+                        stationCount++;
+                        skipWhitespace(true);
+                    } while (peek() == '(');
+                    if (peek() == ',') {
+                        throw error("station pairs are separated by whitespace, not ','");
+                    }
+                    if (blockCount + 2 > lineStart.length) {
+                        lineStart = Arrays.copyOf(lineStart, lineStart.length * 2);
+                    }
+                    lineStart[++blockCount] = stationCount;
+                    break;
+                }
+                default:
+                    skipLine();
+            }
+        }
+
+        if (!hasLineCount) {
+            throw new NavigationFormatException(source, line, column, "missing num_cart_lines");
+        }
+        int lines = Math.min(nameCount, blockCount);
+        data.lineNames = Arrays.copyOf(names, lines);
+        data.lineStart = Arrays.copyOf(lineStart, lines + 1);
+        data.lineFirstDeparture = new int[lines];
+        data.lineLastDeparture = new int[lines];
+        data.lineHeadway = new int[lines];
+        for (int l = 0; l < lines; l++) {
+            if (timetables[l] != null) {
+                data.lineFirstDeparture[l] = timetables[l][0];
+                data.lineLastDeparture[l] = timetables[l][1];
+                data.lineHeadway[l] = timetables[l][2];
+            }
+        }
+        int used = lineStart[lines];
+        data.stationXs = Arrays.copyOf(xs, used);
+        data.stationYs = Arrays.copyOf(ys, used);
+        return data;
+    }
+
+    private int peek() throws IOException {
+        return peek(0);
+    }
+
+    /**
+     * @return the byte offset positions ahead without consuming anything, or -1 past the end
+     */
+    private int peek(int offset) throws IOException {
+        while (buffer.remaining() <= offset && !eof) {
+            buffer.compact();
+            int read = channel.read(buffer);
+            buffer.flip();
+            if (read < 0) {
+                eof = true;
+            }
+        }
+        if (buffer.remaining() <= offset) {
+            return -1;
+        }
+        return buffer.get(buffer.position() + offset) & 0xff;
+    }
+
+    private int next() throws IOException {
+        int c = peek();
+        if (c >= 0) {
+            buffer.get();
+            if (c == '\n') {
+                line++;
+                column = 1;
+            } else {
+                column++;
+            }
+        }
+        return c;
+    }
+
+    private void skipWhitespace(boolean allowLineBreaks) throws IOException {
+        while (true) {
+            int c = peek();
+            boolean space = c == ' ' || c == '\t';
+            boolean lineBreak = c == '\n' || c == '\r' || c == 0x0B || c == '\f';
+            if (space || (allowLineBreaks && lineBreak)) {
+                next();
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void skipLine() throws IOException {
+        int c;
+        do {
+            c = next();
+        } while (c >= 0 && c != '\n');
+    }
+
+    private String readIdentifier() throws IOException {
+        int length = 0;
+        while (true) {
+            int c = peek();
+            boolean word = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+            if (!word) {
+                break;
+            }
+            // Longer names cannot be one of the known keys, so keep only the start
+            if (length < text.length) {
+                text[length++] = (byte) c;
+            }
+            next();
+        }
+        return new String(text, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    private void expectEquals(boolean allowLineBreaks) throws IOException {
+        skipWhitespace(allowLineBreaks);
+        if (peek() != '=') {
+            throw error("expected '='");
+        }
+        next();
+        skipWhitespace(allowLineBreaks);
+    }
+
+    private int readInt() throws IOException {
+        int c = peek();
+        if (c < '0' || c > '9') {
+            throw error("expected a number");
+        }
+        long value = 0;
+        while (c >= '0' && c <= '9') {
+            value = value * 10 + (c - '0');
+            if (value > Integer.MAX_VALUE) {
+                throw error("number too large");
+            }
+            next();
+            c = peek();
+        }
+        return (int) value;
+    }
+
+    /**
+     * Reads a time of day as HH:MM.
+     * @return minutes after midnight
+     */
+    private int readTime() throws IOException {
+        int hours = readInt();
+        if (peek() != ':') {
+            throw error("expected ':' in time of day");
+        }
+        next();
+        int minutes = readInt();
+        if (minutes > 59) {
+            throw error("minutes out of range");
+        }
+        return hours * 60 + minutes;
+    }
+
+    /**
+     * Reads [0-9]+(\.[0-9]+)? and converts it with Double.parseDouble, like getDoubleVar.
+     * A '.' without a digit after it is left unread.
+     */
+    private double readDecimal() throws IOException {
+        int length = 0;
+        boolean fraction = false;
+        int c = peek();
+        if (c < '0' || c > '9') {
+            throw error("expected a number");
+        }
+        while (true) {
+            c = peek();
+            boolean digit = c >= '0' && c <= '9';
+            boolean point = c == '.' && !fraction && peek(1) >= '0' && peek(1) <= '9';
+            if (!digit && !point) {
+                break;
+            }
+            fraction |= point;
+            if (length == scratch.length) {
+                scratch = Arrays.copyOf(scratch, length * 2);
+            }
+            scratch[length++] = (byte) next();
+        }
+        return Double.parseDouble(new String(scratch, 0, length, StandardCharsets.US_ASCII));
+    }
+
+    private int readPointX() throws IOException {
+        if (peek() != '(') {
+            throw error("expected '('");
+        }
+        next();
+        skipWhitespace(true);
+        int x = readInt();
+        skipWhitespace(true);
+        if (peek() != ',') {
+            throw error("expected ','");
+        }
+        next();
+        skipWhitespace(true);
+        return x;
+    }
+
+    private int readPointY() throws IOException {
+        int y = readInt();
+        skipWhitespace(true);
+        if (peek() != ')') {
+            throw error("expected ')'");
+        }
+        next();
+        return y;
+    }
+
+    private String readQuoted() throws IOException {
+        if (peek() != '"') {
+            throw error("expected '\"'");
+        }
+        next();
+        int length = 0;
+        while (true) {
+            int c = peek();
+            if (c < 0) {
+                throw error("unterminated string");
+            }
+            if (c == '"') {
+                break;
+            }
+            if (length == scratch.length) {
+                scratch = Arrays.copyOf(scratch, length * 2);
+            }
+            scratch[length++] = (byte) next();
+        }
+        if (length == 0) {
+            throw error("empty string");
+        }
+        next();
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private NavigationFormatException error(String message) {
+        return new NavigationFormatException(source, line, column, message);
+    }
+}
@@ -0,0 +1,16 @@
+/**
+ * Thrown when a navigation .dat file does not follow the expected syntax.
+ * Carries the 1-based line and column where parsing stopped.
+ */
+public class NavigationFormatException extends RuntimeException {
+    static final long serialVersionUID = 115L;
+
+    public final int line;
+    public final int column;
+
+    public NavigationFormatException(String source, int line, int column, String message) {
+        super(source + ":" + line + ":" + column + ": " + message);
+        this.line = line;
+        this.column = column;
+    }
+}
@@ -0,0 +1,125 @@
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Versioned binary snapshot of a parsed navigation file. Layout (big-endian):
+ * <pre>
+ * int    magic "CNAV", int version
+ * int    numCartLines, double averageCartSpeed (km/h, as written in the .dat file)
+ * int    startX, startY, destinationX, destinationY
+ * int    lineCount, int stationCount
+ * string table: lineCount x (int byteLength, UTF-8 bytes)
+ * int[]  lineStart (lineCount + 1), int[] stationXs, int[] stationYs
+ * int[]  lineFirstDeparture, lineLastDeparture, lineHeadway (lineCount each, since version 2)
+ * </pre>
+ * Snapshots are read through a memory-mapped buffer with bulk array copies, so a routing
+ * process can skip text parsing entirely at startup.
+ */
+public class NetworkSnapshot {
+    public static final int MAGIC = 0x434e4156;
+    public static final int VERSION = 2;
+
+    public static void write(NavigationData data, String filename) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(data.numCartLines);
+            out.writeDouble(data.averageCartSpeed);
+            out.writeInt(data.startX);
+            out.writeInt(data.startY);
+            out.writeInt(data.destinationX);
+            out.writeInt(data.destinationY);
+            out.writeInt(data.lineCount());
+            out.writeInt(data.stationXs.length);
+            for (String name : data.lineNames) {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            writeInts(out, data.lineStart);
+            writeInts(out, data.stationXs);
+            writeInts(out, data.stationYs);
+            int lines = data.lineCount();
+            writeInts(out, data.lineHeadway != null ? data.lineFirstDeparture : new int[lines]);
+            writeInts(out, data.lineHeadway != null ? data.lineLastDeparture : new int[lines]);
+            writeInts(out, data.lineHeadway != null ? data.lineHeadway : new int[lines]);
+        }
+    }
+
+    public static NavigationData read(String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer, filename);
+        } catch (BufferUnderflowException e) {
+            throw new IOException(filename + ": truncated network snapshot", e);
+        }
+    }
+
+    static NavigationData read(ByteBuffer buffer, String source) throws IOException {
+        if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+            throw new IOException(source + ": not a network snapshot");
+        }
+        int version = buffer.getInt();
+        if (version < 1 || version > VERSION) {
+            throw new IOException(source + ": unsupported snapshot version " + version);
+        }
+        NavigationData data = new NavigationData();
+        data.numCartLines = buffer.getInt();
+        data.averageCartSpeed = buffer.getDouble();
+        data.startX = buffer.getInt();
+        data.startY = buffer.getInt();
+        data.destinationX = buffer.getInt();
+        data.destinationY = buffer.getInt();
+        int lineCount = buffer.getInt();
+        int stationCount = buffer.getInt();
+
+        data.lineNames = new String[lineCount];
+        byte[] bytes = new byte[64];
+        for (int l = 0; l < lineCount; l++) {
+            int length = buffer.getInt();
+            if (length > bytes.length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            buffer.get(bytes, 0, length);
+            data.lineNames[l] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+        data.lineStart = readInts(buffer, lineCount + 1);
+        data.stationXs = readInts(buffer, stationCount);
+        data.stationYs = readInts(buffer, stationCount);
+        if (version >= 2) {
+            data.lineFirstDeparture = readInts(buffer, lineCount);
+            data.lineLastDeparture = readInts(buffer, lineCount);
+            data.lineHeadway = readInts(buffer, lineCount);
+        } else {
+            data.lineFirstDeparture = new int[lineCount];
+            data.lineLastDeparture = new int[lineCount];
+            data.lineHeadway = new int[lineCount];
+        }
+        return data;
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(4096);
+        for (int value : values) {
+            if (!chunk.hasRemaining()) {
+                out.write(chunk.array(), 0, chunk.position());
+                chunk.clear();
+            }
+            chunk.putInt(value);
+        }
+        out.write(chunk.array(), 0, chunk.position());
+    }
+
+    private static int[] readInts(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + count * 4);
+        return values;
+    }
+}
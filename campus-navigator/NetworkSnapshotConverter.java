@@ -0,0 +1,78 @@
+import java.util.*;
+
+/**
+ * Converts a navigation .dat file into a binary NetworkSnapshot.
+ * Usage: java NetworkSnapshotConverter <input.dat> <output.cnav> [--verify]
+ * With --verify the snapshot is read back and compared field by field against readInput.
+ */
+public class NetworkSnapshotConverter {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: java NetworkSnapshotConverter <input.dat> <output.cnav> [--verify]");
+            System.exit(2);
+        }
+        long begin = System.nanoTime();
+        NavigationData data = NavigationFileParser.parse(args[0]);
+        NetworkSnapshot.write(data, args[1]);
+        System.out.printf("Wrote %d cart lines, %d stations to %s in %.1f ms%n",
+                data.lineCount(), data.stationXs.length, args[1], (System.nanoTime() - begin) / 1e6);
+
+        if (args.length > 2 && args[2].equals("--verify")) {
+            String mismatch = verifyRoundTrip(args[0], args[1]);
+            if (mismatch != null) {
+                System.out.println("Round trip FAILED: " + mismatch);
+                System.exit(1);
+            }
+            System.out.println("Round trip OK");
+        }
+    }
+
+    /**
+     * @return a description of the first difference between the two loaded networks, or null
+     */
+    public static String verifyRoundTrip(String datFile, String snapshotFile) {
+        CampusNavigatorNetwork expected = new CampusNavigatorNetwork();
+        expected.readInput(datFile);
+        CampusNavigatorNetwork actual = new CampusNavigatorNetwork();
+        actual.readSnapshot(snapshotFile);
+
+        if (expected.numCartLines != actual.numCartLines) {
+            return "num_cart_lines " + expected.numCartLines + " vs " + actual.numCartLines;
+        }
+        if (Double.compare(expected.averageCartSpeed, actual.averageCartSpeed) != 0) {
+            return "average_cart_speed " + expected.averageCartSpeed + " vs " + actual.averageCartSpeed;
+        }
+        if (!sameStation(expected.startPoint, actual.startPoint)) {
+            return "starting_point";
+        }
+        if (!sameStation(expected.destinationPoint, actual.destinationPoint)) {
+            return "destination_point";
+        }
+        if (expected.lines.size() != actual.lines.size()) {
+            return "cart line count " + expected.lines.size() + " vs " + actual.lines.size();
+        }
+        for (int l = 0; l < expected.lines.size(); l++) {
+            CartLine e = expected.lines.get(l);
+            CartLine a = actual.lines.get(l);
+            if (!e.cartLineName.equals(a.cartLineName) || e.cartLineStations.size() != a.cartLineStations.size()) {
+                return "cart line " + e.cartLineName;
+            }
+            if (e.firstDeparture != a.firstDeparture || e.lastDeparture != a.lastDeparture || e.headway != a.headway) {
+                return "timetable of cart line " + e.cartLineName + ": " + e.firstDeparture + "-" + e.lastDeparture
+                        + " every " + e.headway + " vs " + a.firstDeparture + "-" + a.lastDeparture + " every " + a.headway;
+            }
+            for (int s = 0; s < e.cartLineStations.size(); s++) {
+                if (!sameStation(e.cartLineStations.get(s), a.cartLineStations.get(s))) {
+                    return "station " + e.cartLineStations.get(s);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean sameStation(Station e, Station a) {
+        return e.description.equals(a.description)
+                && e.coordinates.x == a.coordinates.x && e.coordinates.y == a.coordinates.y;
+    }
+}
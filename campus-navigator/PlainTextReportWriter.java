@@ -0,0 +1,77 @@
+import java.io.Writer;
+
+/**
+ * Renders the same text as Project.printSchedule and CampusNavigatorApp.printRouteDirections
+ * originally printed with String.format, byte for byte.
+ */
+public class PlainTextReportWriter extends BufferedReportWriter {
+    private static final int LINE_WIDTH = 65;
+    private static final String HEADER = String.format("%-10s%-45s%-7s%-5s", "Task ID", "Description", "Start", "End");
+
+    public PlainTextReportWriter(Writer out) {
+        super(out);
+    }
+
+    @Override
+    public void beginProject(String name) {
+        dashes();
+        append("Project name: ");
+        append(name);
+        newLine();
+        dashes();
+        append(HEADER);
+        newLine();
+        dashes();
+    }
+
+    @Override
+    public void task(int index, String description, int start, int end) {
+        appendPadded(index, 10);
+        appendPadded(description, 45);
+        appendPadded(start, 7);
+        appendPadded(end, 5);
+        newLine();
+    }
+
+    @Override
+    public void endProject(int completionDay) {
+        dashes();
+        append("Project will be completed in ");
+        append(completionDay);
+        append(" days.");
+        newLine();
+        dashes();
+    }
+
+    @Override
+    public void beginRoute(double totalMinutes) {
+        append("The fastest route takes ");
+        append(Math.round(totalMinutes));
+        append(" minute(s).");
+        newLine();
+        append("Directions\n----------");
+        newLine();
+    }
+
+    @Override
+    public void routeStep(int stepNumber, boolean cartRide, String from, String to, double minutes) {
+        append(stepNumber);
+        append(cartRide ? ". Ride the cart from \"" : ". Walk from \"");
+        append(from);
+        append("\" to \"");
+        append(to);
+        append("\" for ");
+        appendFixed2(minutes);
+        append(" minutes.");
+        newLine();
+    }
+
+    @Override
+    public void endRoute() {
+    }
+
+    private void dashes() {
+        repeat('-', LINE_WIDTH);
+        newLine();
+    }
+}
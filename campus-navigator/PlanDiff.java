@@ -0,0 +1,184 @@
+import java.util.*;
+
+/**
+ * Differences between two versions of a club fair plan, such as two results of
+ * ClubFairSetupPlanner.readXML. Projects are matched by name and tasks within a project by task
+ * ID, both of which are expected to be unique. A task whose description, duration or dependencies
+ * differ is changed. Dependency edges (task, prerequisite) are compared as sets per task, so the
+ * edges of added and removed tasks are added and removed edges as well.
+ *
+ * A project is changed when its tasks differ or only their order does. The printed schedule
+ * numbers its rows by position, so a reordered project has to be printed again even though
+ * Project.equals ignores the order and none of its tasks shows up as changed.
+ *
+ * Everything is looked up in hash maps and a project whose task list equals the old one is
+ * skipped after that one comparison, so a diff takes time linear in the size of both plans. Only
+ * the projects in getProjectsToSchedule() need to be scheduled again.
+ */
+public class PlanDiff {
+    public final List<Project> addedProjects = new ArrayList<>();
+    public final List<Project> removedProjects = new ArrayList<>();
+    /** New versions of the projects in both plans whose tasks or task order differ. */
+    public final List<Project> changedProjects = new ArrayList<>();
+    public final List<TaskChange> addedTasks = new ArrayList<>();
+    public final List<TaskChange> removedTasks = new ArrayList<>();
+    public final List<TaskChange> changedTasks = new ArrayList<>();
+    public final List<Dependency> addedDependencies = new ArrayList<>();
+    public final List<Dependency> removedDependencies = new ArrayList<>();
+
+    private PlanDiff() {
+    }
+
+    /**
+     * @return what changed from before to after, listed in the order of after, then of before
+     */
+    public static PlanDiff between(List<Project> before, List<Project> after) {
+        PlanDiff diff = new PlanDiff();
+        Map<String, Project> oldProjects = byName(before);
+        Map<String, Project> newProjects = byName(after);
+        for (Project project : after) {
+            Project old = oldProjects.get(project.getName());
+            if (old == null) {
+                diff.addedProjects.add(project);
+                diff.compareTasks(project.getName(), Collections.emptyList(), project.getTasks());
+            } else if (!old.getTasks().equals(project.getTasks())) {
+                diff.changedProjects.add(project);
+                diff.compareTasks(project.getName(), old.getTasks(), project.getTasks());
+            }
+        }
+        for (Project project : before) {
+            if (!newProjects.containsKey(project.getName())) {
+                diff.removedProjects.add(project);
+                diff.compareTasks(project.getName(), project.getTasks(), Collections.emptyList());
+            }
+        }
+        return diff;
+    }
+
+    public boolean isEmpty() {
+        return addedProjects.isEmpty() && removedProjects.isEmpty() && changedProjects.isEmpty();
+    }
+
+    /**
+     * @return the added and changed projects, which are the only ones whose schedules can differ
+     */
+    public List<Project> getProjectsToSchedule() {
+        List<Project> projects = new ArrayList<>(addedProjects.size() + changedProjects.size());
+        projects.addAll(addedProjects);
+        projects.addAll(changedProjects);
+        return projects;
+    }
+
+    private void compareTasks(String project, List<Task> before, List<Task> after) {
+        Map<Integer, Task> oldTasks = new HashMap<>(before.size() * 2);
+        for (Task t : before) {
+            oldTasks.put(t.getTaskID(), t);
+        }
+        Set<Integer> newIds = new HashSet<>(after.size() * 2);
+        for (Task t : after) {
+            newIds.add(t.getTaskID());
+            Task old = oldTasks.get(t.getTaskID());
+            if (old == null) {
+                addedTasks.add(new TaskChange(project, null, t));
+                compareDependencies(project, t.getTaskID(), Collections.emptyList(), t.getDependencies());
+            } else if (!old.equals(t)) {
+                changedTasks.add(new TaskChange(project, old, t));
+                compareDependencies(project, t.getTaskID(), old.getDependencies(), t.getDependencies());
+            }
+        }
+        for (Task t : before) {
+            if (!newIds.contains(t.getTaskID())) {
+                removedTasks.add(new TaskChange(project, t, null));
+                compareDependencies(project, t.getTaskID(), t.getDependencies(), Collections.emptyList());
+            }
+        }
+    }
+
+    private void compareDependencies(String project, int taskID, List<Integer> before, List<Integer> after) {
+        Set<Integer> oldIds = new HashSet<>(before);
+        Set<Integer> newIds = new HashSet<>(after.size() * 2);
+        for (int prerequisite : after) {
+            if (newIds.add(prerequisite) && !oldIds.contains(prerequisite)) {
+                addedDependencies.add(new Dependency(project, taskID, prerequisite));
+            }
+        }
+        for (int prerequisite : before) {
+            if (!newIds.contains(prerequisite) && oldIds.remove(prerequisite)) {
+                removedDependencies.add(new Dependency(project, taskID, prerequisite));
+            }
+        }
+    }
+
+    private static Map<String, Project> byName(List<Project> projects) {
+        Map<String, Project> map = new HashMap<>(projects.size() * 2);
+        for (Project p : projects) {
+            map.put(p.getName(), p);
+        }
+        return map;
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d projects added, %d removed, %d changed%n",
+                addedProjects.size(), removedProjects.size(), changedProjects.size()));
+        for (TaskChange change : addedTasks) {
+            sb.append("+ ").append(change).append(System.lineSeparator());
+        }
+        for (TaskChange change : removedTasks) {
+            sb.append("- ").append(change).append(System.lineSeparator());
+        }
+        for (TaskChange change : changedTasks) {
+            sb.append("~ ").append(change).append(System.lineSeparator());
+        }
+        for (Dependency edge : addedDependencies) {
+            sb.append("+ ").append(edge).append(System.lineSeparator());
+        }
+        for (Dependency edge : removedDependencies) {
+            sb.append("- ").append(edge).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * One added, removed or changed task: before is null for an added task, after for a removed one.
+     */
+    public static class TaskChange {
+        public final String project;
+        public final Task before;
+        public final Task after;
+
+        TaskChange(String project, Task before, Task after) {
+            this.project = project;
+            this.before = before;
+            this.after = after;
+        }
+
+        public int getTaskID() {
+            return after != null ? after.getTaskID() : before.getTaskID();
+        }
+
+        public String toString() {
+            Task t = after != null ? after : before;
+            return String.format("%s: task %d (%s, %d days)", project, t.getTaskID(), t.getDescription(), t.getDuration());
+        }
+    }
+
+    /**
+     * The edge saying that task taskID cannot start before task prerequisiteID is done.
+     */
+    public static class Dependency {
+        public final String project;
+        public final int taskID;
+        public final int prerequisiteID;
+
+        Dependency(String project, int taskID, int prerequisiteID) {
+            this.project = project;
+            this.taskID = taskID;
+            this.prerequisiteID = prerequisiteID;
+        }
+
+        public String toString() {
+            return String.format("%s: task %d after task %d", project, taskID, prerequisiteID);
+        }
+    }
+}
@@ -2,9 +2,34 @@ import java.io.Serializable;
 
 public class Point implements Serializable {
     static final long serialVersionUID = 22L;
-    public int x, y;
+    public final int x, y;
     public Point(int x, int y) {
         this.x = x;
         this.y = y;
     }
+
+    /**
+     * @return x in the high and y in the low 32 bits, one long per distinct coordinate
+     */
+    public static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    public long pack() {
+        return pack(x, y);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Point)) {
+            return false;
+        }
+        Point other = (Point) o;
+        return x == other.x && y == other.y;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(pack());
+    }
 }
@@ -1,14 +1,29 @@
+import java.io.PrintWriter;
 import java.io.Serializable;
 import java.util.*;
 
 public class Project implements Serializable {
     static final long serialVersionUID = 33L;
+    private static final MetricsRegistry.Timer SCHEDULE_TIMER = MetricsRegistry.global().timer("schedule.earliest");
     private final String name;
     private final List<Task> tasks;
+    /** Content hash, computed on first use; 0 means not yet computed. */
+    private transient int hash;
 
+    /**
+     * The task list is not copied; it must not be changed afterwards.
+     */
     public Project(String name, List<Task> tasks) {
         this.name = name;
-        this.tasks = tasks;
+        this.tasks = Collections.unmodifiableList(tasks);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
     }
 
     /**
@@ -30,93 +45,144 @@ public class Project implements Serializable {
      * Schedule all tasks within this project such that they will be completed as early as possible.
      *
      * @return An integer array consisting of the earliest start days for each task.
+     * @throws CyclicDependencyException if the task dependencies form a cycle
      */
     public int[] getEarliestSchedule() {
-        int taskCount = tasks.size();
-        int[] earliestStart = new int[taskCount];
-        int[] dependencyCount = new int[taskCount];
-        Map<Integer, List<Integer>> dependencyGraph = new HashMap<>();
-
-        for (Task currentTask : tasks) {
-            for (int prerequisite : currentTask.getDependencies()) {
-                dependencyGraph.computeIfAbsent(prerequisite, key -> new ArrayList<>()).add(currentTask.getTaskID());
-                dependencyCount[currentTask.getTaskID()]++;
-            }
+        long start = SCHEDULE_TIMER.start();
+        try {
+            return getTaskGraph().earliestStart();
+        } finally {
+            SCHEDULE_TIMER.stop(start);
         }
+    }
 
-        Queue<Integer> readyTasks = new LinkedList<>();
-        for (int i = 0; i < taskCount; i++) {
-            boolean noDependencies = dependencyCount[i] == 0;
-            if (noDependencies) {
-                readyTasks.offer(i);
-            }
-        }
+    /**
+     * @return earliest and latest start days, slack and a critical chain, indexed like tasks
+     * @throws CyclicDependencyException if the task dependencies form a cycle
+     */
+    public CriticalPathAnalysis getCriticalPath() {
+        return getTaskGraph().analyze();
+    }
 
-        do {
-            if (readyTasks.isEmpty()) break;
-            int current = readyTasks.poll();
-            int finishTime = earliestStart[current] + tasks.get(current).getDuration();
-
-            List<Integer> dependents = dependencyGraph.get(current);
-            boolean hasDependents = dependents != null && !dependents.isEmpty();
-            if (hasDependents) {
-                for (int dependent : dependents) {
-                    earliestStart[dependent] = Math.max(earliestStart[dependent], finishTime);
-                    dependencyCount[dependent]--;
-                    boolean readyToSchedule = dependencyCount[dependent] <= 0;
-                    if (readyToSchedule) {
-                        readyTasks.offer(dependent);
-                    }
-                }
-            }
-        } while (true);
 
-        return earliestStart;
+    /**
+     * Schedule all tasks when at most crews of them can run at the same time.
+     *
+     * @return the start day of each task and how much later the project ends than without a limit
+     * @throws CyclicDependencyException if the task dependencies form a cycle
+     */
+    public ResourceSchedule getResourceConstrainedSchedule(int crews) {
+        return ResourceConstrainedScheduler.schedule(getTaskGraph(), crews);
     }
 
+    /**
+     * @return the tasks compiled into a TaskGraph
+     */
+    public TaskGraph getTaskGraph() {
+        return TaskGraph.compile(tasks);
+    }
 
+    /**
+     * Prints a line of limit copies of symbol to standard output.
+     * @deprecated schedules are printed through ReportWriter, which draws its own separators
+     */
+    @Deprecated
     public static void printlnDash(int limit, char symbol) {
-        for (int i = 0; i < limit; i++) System.out.print(symbol);
-        System.out.println();
+        char[] line = new char[Math.max(limit, 0)];
+        Arrays.fill(line, symbol);
+        System.out.println(line);
+    }
+
+    /**
+     * Prints a line of limit copies of symbol to out in a single write.
+     * @deprecated schedules are printed through ReportWriter, which draws its own separators
+     */
+    @Deprecated
+    public static void printlnDash(int limit, char symbol, PrintWriter out) {
+        char[] line = new char[Math.max(limit, 0)];
+        Arrays.fill(line, symbol);
+        out.println(line);
     }
 
     /**
      * Some free code here. YAAAY! 
      */
     public void printSchedule(int[] schedule) {
-        int limit = 65;
-        char symbol = '-';
-        printlnDash(limit, symbol);
-        System.out.println(String.format("Project name: %s", name));
-        printlnDash(limit, symbol);
-
-        // Print header
-        System.out.println(String.format("%-10s%-45s%-7s%-5s","Task ID","Description","Start","End"));
-        printlnDash(limit, symbol);
+        ReportWriter report = ReportWriter.toStandardOutput();
+        writeSchedule(schedule, report);
+        report.flush();
+    }
+
+    /**
+     * Writes the same table as printSchedule(int[]) to the given writer.
+     */
+    public void printSchedule(int[] schedule, PrintWriter out) {
+        ReportWriter report = ReportWriter.plainText(out);
+        writeSchedule(schedule, report);
+        report.flush();
+    }
+
+    /**
+     * Passes the schedule to a report writer, one row per task.
+     */
+    public void writeSchedule(int[] schedule, ReportWriter report) {
+        report.beginProject(name);
         for (int i = 0; i < schedule.length; i++) {
             Task t = tasks.get(i);
-            System.out.println(String.format("%-10d%-45s%-7d%-5d", i, t.getDescription(), schedule[i], schedule[i]+t.getDuration()));
+            report.task(i, t.getDescription(), schedule[i], schedule[i] + t.getDuration());
         }
-        printlnDash(limit, symbol);
-        System.out.println(String.format("Project will be completed in %d days.", tasks.get(schedule.length-1).getDuration() + schedule[schedule.length-1]));
-        printlnDash(limit, symbol);
+        report.endProject(tasks.get(schedule.length - 1).getDuration() + schedule[schedule.length - 1]);
     }
 
+    /**
+     * Projects are equal when they have the same name and the same tasks in any order, each task
+     * as often in one as in the other. Counts the tasks in a hash map, so the check takes linear time.
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Project project = (Project) o;
+        if (!name.equals(project.name) || tasks.size() != project.tasks.size() || hashCode() != project.hashCode()) {
+            return false;
+        }
+        // Two versions of one plan usually list the tasks in the same order
+        if (tasks.equals(project.tasks)) {
+            return true;
+        }
 
-        int equal = 0;
-
-        for (Task otherTask : ((Project) o).tasks) {
-            if (tasks.stream().anyMatch(t -> t.equals(otherTask))) {
-                equal++;
+        Map<Task, Integer> counts = new HashMap<>(tasks.size() * 2);
+        for (Task t : tasks) {
+            counts.merge(t, 1, Integer::sum);
+        }
+        for (Task t : project.tasks) {
+            Integer count = counts.get(t);
+            if (count == null) {
+                return false;
+            }
+            if (count == 1) {
+                counts.remove(t);
+            } else {
+                counts.put(t, count - 1);
             }
         }
+        return true;
+    }
 
-        return name.equals(project.name) && equal == tasks.size();
+    /**
+     * Independent of task order, like equals. Computed on first use.
+     */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = name.hashCode();
+            for (Task t : tasks) {
+                h += t.hashCode();
+            }
+            hash = h;
+        }
+        return h;
     }
 
 }
@@ -0,0 +1,141 @@
+import java.util.*;
+
+/**
+ * A* search that only walks to nearby cart stations, found through the graph's StationGrid,
+ * instead of to every station. The destination is always reachable on foot.
+ *
+ * Whether a route is guaranteed optimal depends on the pruning, see isExact(). Every walking
+ * leg of an optimal route takes at most as long as walking straight to the destination, so a
+ * radius of at least the start-destination distance never cuts a useful leg. exact() picks that
+ * radius per query, and the radius shrinks further as faster arrivals at the destination are
+ * found. A fixed radius below it, or a k-nearest limit, gives approximate routes.
+ */
+public class PrunedWalkRouteEngine implements RouteEngine {
+    private final int nearestCount;
+    private final double radius;
+
+    private PrunedWalkRouteEngine(int nearestCount, double radius) {
+        this.nearestCount = nearestCount;
+        this.radius = radius;
+    }
+
+    /**
+     * Walks at most the start-destination distance per leg; always optimal.
+     */
+    public static PrunedWalkRouteEngine exact() {
+        return new PrunedWalkRouteEngine(0, -1);
+    }
+
+    /**
+     * Walks only to stations within the given radius; optimal when isExact() says so.
+     */
+    public static PrunedWalkRouteEngine withinRadius(double radius) {
+        return new PrunedWalkRouteEngine(0, radius);
+    }
+
+    /**
+     * Walks only to the k nearest stations of each node; approximate.
+     */
+    public static PrunedWalkRouteEngine nearest(int k) {
+        return new PrunedWalkRouteEngine(k, -1);
+    }
+
+    /**
+     * @return true if routes between these points are guaranteed to be the fastest possible
+     */
+    public boolean isExact(Point start, Point destination) {
+        if (nearestCount > 0) {
+            return false;
+        }
+        return radius < 0 || radius >= straightLine(start, destination);
+    }
+
+    @Override
+    public List<RouteDirection> findRoute(CartSegmentGraph graph, Point start, Point destination, SearchStats stats) {
+        RouteQuery query = graph.query(start, destination);
+        int n = query.nodeCount;
+        double walkRadius = nearestCount > 0 ? 0 : radius < 0 ? straightLine(start, destination) : radius;
+        double maxSpeed = Math.max(graph.cartSpeed, graph.walkingSpeed);
+        int tx = destination.x;
+        int ty = destination.y;
+
+        double[] dist = new double[n];
+        int[] predecessors = new int[n];
+        int[] cartMark = new int[n];
+        boolean[] settled = new boolean[n];
+        int[] nearby = new int[graph.stationCount];
+        Arrays.fill(dist, Double.MAX_VALUE);
+        Arrays.fill(predecessors, -1);
+        dist[query.source] = 0.0;
+
+        IndexedMinHeap queue = new IndexedMinHeap(n);
+        queue.insertOrDecrease(query.source, 0.0);
+        stats.heapPushes++;
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            settled[u] = true;
+            stats.settledNodes++;
+            if (u == query.target) {
+                break;
+            }
+            double du = dist[u];
+            int ux = query.x(u);
+            int uy = query.y(u);
+
+            if (u < graph.stationCount) {
+                for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                    int v = graph.targets[e];
+                    cartMark[v] = u + 1;
+                    if (!settled[v]) {
+                        stats.relaxedEdges++;
+                        relax(stats, queue, dist, predecessors, u, v, du + graph.weights[e],
+                                CartSegmentGraph.travelTime(graph.xs[v], graph.ys[v], tx, ty, maxSpeed));
+                    }
+                }
+            }
+
+            int count;
+            if (nearestCount > 0) {
+                int[] closest = graph.grid.nearest(ux, uy, nearestCount + 1);
+                count = closest.length;
+                System.arraycopy(closest, 0, nearby, 0, count);
+            } else {
+                // Walking further than the best arrival found so far allows cannot help either
+                double reach = Math.min(walkRadius, (dist[query.target] - du) * graph.walkingSpeed);
+                count = graph.grid.withinRadius(ux, uy, reach, nearby);
+            }
+            for (int i = 0; i < count; i++) {
+                int v = nearby[i];
+                if (v == u || settled[v] || cartMark[v] == u + 1) {
+                    continue;
+                }
+                stats.relaxedEdges++;
+                relax(stats, queue, dist, predecessors, u, v,
+                        du + CartSegmentGraph.travelTime(ux, uy, graph.xs[v], graph.ys[v], graph.walkingSpeed),
+                        CartSegmentGraph.travelTime(graph.xs[v], graph.ys[v], tx, ty, maxSpeed));
+            }
+            if (!settled[query.target]) {
+                stats.relaxedEdges++;
+                relax(stats, queue, dist, predecessors, u, query.target, du + query.walkTime(u, query.target), 0.0);
+            }
+        }
+
+        return query.directions(predecessors);
+    }
+
+    private static void relax(SearchStats stats, IndexedMinHeap queue, double[] dist, int[] predecessors,
+                              int u, int v, double alt, double potential) {
+        if (alt < dist[v]) {
+            dist[v] = alt;
+            predecessors[v] = u;
+            queue.insertOrDecrease(v, alt + potential);
+            stats.heapPushes++;
+        }
+    }
+
+    private static double straightLine(Point a, Point b) {
+        double dx = a.x - b.x;
+        double dy = a.y - b.y;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+}
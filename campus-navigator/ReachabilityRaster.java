@@ -0,0 +1,127 @@
+import java.util.Arrays;
+
+/**
+ * Square grid over the area reachable in an Isochrone. A cell counts as reachable when its
+ * center can be reached within the budget by walking straight from the origin or from one of the
+ * reached stations, and it stores the earliest such arrival. The grid only spans the bounding box
+ * of those walking discs, and painting touches only the cells inside them.
+ */
+public class ReachabilityRaster {
+    public final int minX;
+    public final int minY;
+    public final int cellSize;
+    public final int cols;
+    public final int rows;
+    /** Earliest arrival in minutes per cell, row-major; POSITIVE_INFINITY when unreachable. */
+    public final float[] arrivalTimes;
+
+    private ReachabilityRaster(int minX, int minY, int cellSize, int cols, int rows) {
+        this.minX = minX;
+        this.minY = minY;
+        this.cellSize = cellSize;
+        this.cols = cols;
+        this.rows = rows;
+        this.arrivalTimes = new float[cols * rows];
+        Arrays.fill(arrivalTimes, Float.POSITIVE_INFINITY);
+    }
+
+    static ReachabilityRaster of(Isochrone isochrone, int cellSize) {
+        if (cellSize < 1) {
+            throw new IllegalArgumentException("Cell size must be at least 1: " + cellSize);
+        }
+        CartSegmentGraph graph = isochrone.graph;
+        double speed = graph.walkingSpeed;
+        int n = isochrone.size();
+        double loX = isochrone.origin.x;
+        double loY = isochrone.origin.y;
+        double hiX = loX;
+        double hiY = loY;
+        double radius = isochrone.minutes * speed;
+        loX -= radius;
+        loY -= radius;
+        hiX += radius;
+        hiY += radius;
+        for (int i = 0; i < n; i++) {
+            int v = isochrone.stations[i];
+            double r = (isochrone.minutes - isochrone.arrivalTimes[i]) * speed;
+            loX = Math.min(loX, graph.xs[v] - r);
+            loY = Math.min(loY, graph.ys[v] - r);
+            hiX = Math.max(hiX, graph.xs[v] + r);
+            hiY = Math.max(hiY, graph.ys[v] + r);
+        }
+        int x0 = (int) Math.floor(loX);
+        int y0 = (int) Math.floor(loY);
+        int cols = (int) Math.floor((hiX - x0) / cellSize) + 1;
+        int rows = (int) Math.floor((hiY - y0) / cellSize) + 1;
+        if ((long) cols * rows > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Raster of " + cols + " x " + rows + " cells is too large; use a larger cell size");
+        }
+
+        ReachabilityRaster raster = new ReachabilityRaster(x0, y0, cellSize, cols, rows);
+        raster.paint(isochrone.origin.x, isochrone.origin.y, 0.0, isochrone.minutes, speed);
+        for (int i = 0; i < n; i++) {
+            int v = isochrone.stations[i];
+            raster.paint(graph.xs[v], graph.ys[v], isochrone.arrivalTimes[i], isochrone.minutes, speed);
+        }
+        return raster;
+    }
+
+    /**
+     * Lowers the arrival of every cell whose center is within walking reach of (x, y).
+     */
+    private void paint(int x, int y, double arrival, double minutes, double speed) {
+        double radius = (minutes - arrival) * speed;
+        double half = cellSize / 2.0;
+        int c0 = Math.max(0, (int) Math.ceil((x - radius - half - minX) / cellSize));
+        int c1 = Math.min(cols - 1, (int) Math.floor((x + radius - half - minX) / cellSize));
+        int r0 = Math.max(0, (int) Math.ceil((y - radius - half - minY) / cellSize));
+        int r1 = Math.min(rows - 1, (int) Math.floor((y + radius - half - minY) / cellSize));
+        for (int r = r0; r <= r1; r++) {
+            double dy = minY + r * (double) cellSize + half - y;
+            for (int c = c0; c <= c1; c++) {
+                double dx = minX + c * (double) cellSize + half - x;
+                double time = arrival + Math.sqrt(dx * dx + dy * dy) / speed;
+                int cell = r * cols + c;
+                if (time <= minutes && time < arrivalTimes[cell]) {
+                    arrivalTimes[cell] = (float) time;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if the cell containing (x, y) is reachable
+     */
+    public boolean isReachable(int x, int y) {
+        return getArrivalTime(x, y) != Float.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @return the arrival at the center of the cell containing (x, y), or POSITIVE_INFINITY
+     */
+    public float getArrivalTime(int x, int y) {
+        int c = Math.floorDiv(x - minX, cellSize);
+        int r = Math.floorDiv(y - minY, cellSize);
+        if (c < 0 || c >= cols || r < 0 || r >= rows) {
+            return Float.POSITIVE_INFINITY;
+        }
+        return arrivalTimes[r * cols + c];
+    }
+
+    public int getReachableCells() {
+        int count = 0;
+        for (float t : arrivalTimes) {
+            if (t != Float.POSITIVE_INFINITY) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the reachable area in square meters
+     */
+    public double getReachableArea() {
+        return (double) getReachableCells() * cellSize * cellSize;
+    }
+}
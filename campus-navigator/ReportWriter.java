@@ -0,0 +1,52 @@
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * Receives project schedules and route directions as a stream of rows and renders them in
+ * one output format. Renderers buffer their output; call flush() when a report is complete.
+ * I/O failures are thrown as UncheckedIOException.
+ */
+public interface ReportWriter {
+
+    void beginProject(String name);
+
+    /**
+     * @param index position of the task in the project's task list
+     */
+    void task(int index, String description, int start, int end);
+
+    /**
+     * @param completionDay the day the project's last task ends
+     */
+    void endProject(int completionDay);
+
+    void beginRoute(double totalMinutes);
+
+    void routeStep(int stepNumber, boolean cartRide, String from, String to, double minutes);
+
+    void endRoute();
+
+    void flush();
+
+    /**
+     * @return the human-readable tables and directions printed by Main
+     */
+    static ReportWriter plainText(Writer out) {
+        return new PlainTextReportWriter(out);
+    }
+
+    static ReportWriter csv(Writer out) {
+        return new CsvReportWriter(out);
+    }
+
+    static ReportWriter jsonLines(Writer out) {
+        return new JsonLinesReportWriter(out);
+    }
+
+    /**
+     * @return a plain text writer over STDOUT
+     */
+    static ReportWriter toStandardOutput() {
+        return plainText(new OutputStreamWriter(System.out));
+    }
+}
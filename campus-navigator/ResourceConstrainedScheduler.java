@@ -0,0 +1,119 @@
+import java.util.*;
+
+/**
+ * List scheduling under a crew limit. Every task occupies one crew for its whole duration and
+ * at most crews tasks run at once, either within one project or across several projects that
+ * share a pool. Whenever crews are free, the ready task with the longest remaining critical
+ * path (its own duration plus the longest chain of dependents after it) starts first; ties go
+ * to the lower project and task position.
+ *
+ * Ready tasks wait in one IndexedMinHeap and running tasks in another keyed by finish day, so
+ * each task is pushed and popped a constant number of times and nothing is rescanned.
+ */
+public class ResourceConstrainedScheduler {
+
+    private ResourceConstrainedScheduler() {
+    }
+
+    public static ResourceSchedule schedule(TaskGraph graph, int crews) {
+        return scheduleShared(Collections.singletonList(graph), crews).get(0);
+    }
+
+    /**
+     * Schedules several projects against one shared pool of crews.
+     * @return one schedule per graph, in the same order
+     */
+    public static List<ResourceSchedule> scheduleShared(List<TaskGraph> graphs, int crews) {
+        if (crews < 1) {
+            throw new IllegalArgumentException("At least one crew is needed: " + crews);
+        }
+        int projects = graphs.size();
+        int[] base = new int[projects + 1];
+        for (int p = 0; p < projects; p++) {
+            base[p + 1] = base[p] + graphs.get(p).taskCount;
+        }
+        int n = base[projects];
+
+        // Remaining critical path per task, from a backward pass over each topological order
+        long[] tail = new long[n];
+        int[] unconstrained = new int[projects];
+        int[] waiting = new int[n];
+        for (int p = 0; p < projects; p++) {
+            TaskGraph g = graphs.get(p);
+            int b = base[p];
+            long longest = 0;
+            for (int k = g.taskCount - 1; k >= 0; k--) {
+                int u = g.order[k];
+                long after = 0;
+                for (int e = g.offsets[u]; e < g.offsets[u + 1]; e++) {
+                    after = Math.max(after, tail[b + g.successors[e]]);
+                    waiting[b + g.successors[e]]++;
+                }
+                tail[b + u] = after + g.durations[u];
+                longest = Math.max(longest, tail[b + u]);
+            }
+            unconstrained[p] = (int) longest;
+        }
+
+        // Keys stay exact integers in a double: larger tails first, then lower global index
+        IndexedMinHeap ready = new IndexedMinHeap(n);
+        IndexedMinHeap running = new IndexedMinHeap(n);
+        for (int t = 0; t < n; t++) {
+            if (waiting[t] == 0) {
+                ready.insertOrDecrease(t, readyKey(tail[t], t, n));
+            }
+        }
+
+        int[] start = new int[n];
+        int[] project = new int[n];
+        for (int p = 0; p < projects; p++) {
+            Arrays.fill(project, base[p], base[p + 1], p);
+        }
+        long now = 0;
+        int freeCrews = crews;
+        int scheduled = 0;
+        while (scheduled < n) {
+            while (freeCrews > 0 && !ready.isEmpty()) {
+                int t = ready.poll();
+                TaskGraph g = graphs.get(project[t]);
+                start[t] = (int) now;
+                running.insertOrDecrease(t, now + g.durations[t - base[project[t]]]);
+                freeCrews--;
+                scheduled++;
+            }
+            if (running.isEmpty()) {
+                break;
+            }
+            now = (long) running.peekKey();
+            while (!running.isEmpty() && running.peekKey() == now) {
+                int t = running.poll();
+                freeCrews++;
+                int p = project[t];
+                TaskGraph g = graphs.get(p);
+                int u = t - base[p];
+                for (int e = g.offsets[u]; e < g.offsets[u + 1]; e++) {
+                    int v = base[p] + g.successors[e];
+                    if (--waiting[v] == 0) {
+                        ready.insertOrDecrease(v, readyKey(tail[v], v, n));
+                    }
+                }
+            }
+        }
+
+        List<ResourceSchedule> schedules = new ArrayList<>(projects);
+        for (int p = 0; p < projects; p++) {
+            TaskGraph g = graphs.get(p);
+            int[] projectStart = Arrays.copyOfRange(start, base[p], base[p + 1]);
+            int makespan = 0;
+            for (int u = 0; u < g.taskCount; u++) {
+                makespan = Math.max(makespan, projectStart[u] + g.durations[u]);
+            }
+            schedules.add(new ResourceSchedule(crews, projectStart, makespan, unconstrained[p]));
+        }
+        return schedules;
+    }
+
+    private static double readyKey(long tail, int task, int taskCount) {
+        return -(double) tail * (taskCount + 1) + task;
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * Schedule of one project under a crew limit, from ResourceConstrainedScheduler.
+ * start is indexed by position in the task list. unconstrainedMakespan is the project duration
+ * with unlimited crews, so the difference shows what the limit costs.
+ */
+public class ResourceSchedule {
+    public final int crews;
+    public final int[] start;
+    public final int makespan;
+    public final int unconstrainedMakespan;
+
+    public ResourceSchedule(int crews, int[] start, int makespan, int unconstrainedMakespan) {
+        this.crews = crews;
+        this.start = start;
+        this.makespan = makespan;
+        this.unconstrainedMakespan = unconstrainedMakespan;
+    }
+
+    /**
+     * @return extra days the crew limit adds to the project
+     */
+    public int getMakespanIncrease() {
+        return makespan - unconstrainedMakespan;
+    }
+
+    /**
+     * @return makespan relative to the unconstrained one, 1.0 when the limit costs nothing
+     */
+    public double getMakespanRatio() {
+        return unconstrainedMakespan == 0 ? 1.0 : (double) makespan / unconstrainedMakespan;
+    }
+
+    public String toString() {
+        return String.format("%d days with %d crews, %d days unconstrained (+%d days, %.1f%%)",
+                makespan, crews, unconstrainedMakespan, getMakespanIncrease(), (getMakespanRatio() - 1) * 100);
+    }
+}
@@ -0,0 +1,256 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, thread-safe cache of routes in front of a CampusRouter. Entries are keyed by the
+ * start and destination, optionally snapped to a square grid so that nearby requests share one
+ * route; a snapped request is answered with the route between the snapped points.
+ *
+ * Hits take no lock: entries live in a ConcurrentHashMap and a hit only stamps the entry with
+ * the current time. Eviction is approximate LRU in batches. Once the estimated size of all cached
+ * routes exceeds the byte limit, one thread sorts the entries by their stamps and drops the least
+ * recently used ones until the cache is down to three quarters of the limit. Other threads never
+ * wait for it, so the size may briefly overshoot the limit while a batch is evicted.
+ *
+ * The router is looked up through a supplier on every call. When it returns a router over a
+ * different CartSegmentGraph, i.e. a newly loaded campus, all entries are dropped first. A call
+ * that still holds the router from before a reload, while the supplier already hands out a newer
+ * one, is answered by its own router without reading or filling the cache, so calls straddling a
+ * reload cannot make the cache flip between the old and the new campus.
+ * Concurrent misses for the same key may each run a search. Returned lists are shared between
+ * callers and must not be modified.
+ */
+public class RouteCache {
+    private static final int ENTRY_OVERHEAD = 160;
+    private static final int STEP_SIZE = 56;
+
+    private final Supplier<CampusRouter> routers;
+    private final int snap;
+    private final long maxBytes;
+    private final ReentrantLock evicting = new ReentrantLock();
+    private volatile Generation current = new Generation(null);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public RouteCache(CampusRouter router, int snap, long maxBytes) {
+        this(() -> router, snap, maxBytes);
+    }
+
+    /**
+     * @param snap grid size in meters that coordinates are rounded to; 1 keeps them exact
+     * @param maxBytes limit on the estimated size of all cached routes
+     */
+    public RouteCache(Supplier<CampusRouter> routers, int snap, long maxBytes) {
+        if (snap < 1) {
+            throw new IllegalArgumentException("Snap grid must be at least 1: " + snap);
+        }
+        this.routers = routers;
+        this.snap = snap;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return the fastest route between the (snapped) points, from the cache when possible
+     */
+    public List<RouteDirection> route(Point start, Point destination) {
+        Key key = new Key(snap(start.x), snap(start.y), snap(destination.x), snap(destination.y));
+        CampusRouter router = routers.get();
+        Generation generation = generationFor(router.getGraph());
+        if (generation == null) {
+            misses.increment();
+            return Collections.unmodifiableList(
+                    router.route(new Point(key.startX, key.startY), new Point(key.destinationX, key.destinationY)));
+        }
+        Entry cached = generation.entries.get(key);
+        if (cached != null) {
+            cached.lastUsed = System.nanoTime();
+            hits.increment();
+            return cached.route;
+        }
+        misses.increment();
+        List<RouteDirection> route = Collections.unmodifiableList(
+                router.route(new Point(key.startX, key.startY), new Point(key.destinationX, key.destinationY)));
+        // A route stored in a generation replaced meanwhile is dropped along with it
+        Entry entry = new Entry(route);
+        if (generation.entries.putIfAbsent(key, entry) == null
+                && generation.bytes.addAndGet(entry.size) > maxBytes && evicting.tryLock()) {
+            try {
+                evict(generation);
+            } finally {
+                evicting.unlock();
+            }
+        }
+        return route;
+    }
+
+    public synchronized void clear() {
+        current = new Generation(current.graph);
+    }
+
+    public int size() {
+        return current.entries.size();
+    }
+
+    /**
+     * @return the estimated size of the cached routes
+     */
+    public long getBytes() {
+        return current.bytes.get();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * @return how often the cache was emptied because a different campus was loaded
+     */
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    public String toString() {
+        long h = getHits();
+        long m = getMisses();
+        return String.format("hits=%d, misses=%d, hit rate=%.1f%%, evictions=%d, invalidations=%d, entries=%d, bytes=%d",
+                h, m, h + m == 0 ? 0.0 : 100.0 * h / (h + m), getEvictions(), getInvalidations(), size(), getBytes());
+    }
+
+    /**
+     * @return the generation for the given graph, starting an empty one if the graph changed, or
+     *         null if the supplier has moved on to another graph meanwhile
+     */
+    private Generation generationFor(CartSegmentGraph graph) {
+        Generation generation = current;
+        if (generation.graph == graph) {
+            return generation;
+        }
+        synchronized (this) {
+            if (current.graph != graph) {
+                if (routers.get().getGraph() != graph) {
+                    return null;
+                }
+                if (current.graph != null) {
+                    invalidations.incrementAndGet();
+                }
+                current = new Generation(graph);
+            }
+            return current;
+        }
+    }
+
+    private void evict(Generation generation) {
+        long target = maxBytes / 4 * 3;
+        if (generation.bytes.get() <= maxBytes) {
+            return;
+        }
+        // Hits keep stamping entries, so sort a snapshot of the stamps
+        int n = 0;
+        Key[] keys = new Key[generation.entries.size()];
+        Entry[] values = new Entry[keys.length];
+        long[] stamps = new long[keys.length];
+        for (Map.Entry<Key, Entry> e : generation.entries.entrySet()) {
+            if (n == keys.length) {
+                break;
+            }
+            keys[n] = e.getKey();
+            values[n] = e.getValue();
+            stamps[n++] = e.getValue().lastUsed;
+        }
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> stamps[i]));
+        for (int i : order) {
+            if (generation.bytes.get() <= target) {
+                break;
+            }
+            if (generation.entries.remove(keys[i], values[i])) {
+                generation.bytes.addAndGet(-values[i].size);
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private int snap(int coordinate) {
+        return snap == 1 ? coordinate : Math.floorDiv(coordinate + snap / 2, snap) * snap;
+    }
+
+    /**
+     * Station names are shared with the graph, so a route costs its key, map entry, list and steps.
+     */
+    private static long sizeOf(List<RouteDirection> route) {
+        return ENTRY_OVERHEAD + (long) STEP_SIZE * route.size();
+    }
+
+    /**
+     * The entries cached for one graph; replaced as a whole when the campus changes.
+     */
+    private static final class Generation {
+        final CartSegmentGraph graph;
+        final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+        final AtomicLong bytes = new AtomicLong();
+
+        Generation(CartSegmentGraph graph) {
+            this.graph = graph;
+        }
+    }
+
+    private static final class Entry {
+        final List<RouteDirection> route;
+        final long size;
+        /** System.nanoTime() of the latest hit; racy updates only blur the LRU order. */
+        volatile long lastUsed = System.nanoTime();
+
+        Entry(List<RouteDirection> route) {
+            this.route = route;
+            this.size = sizeOf(route);
+        }
+    }
+
+    private static final class Key {
+        final int startX;
+        final int startY;
+        final int destinationX;
+        final int destinationY;
+
+        Key(int startX, int startY, int destinationX, int destinationY) {
+            this.startX = startX;
+            this.startY = startY;
+            this.destinationX = destinationX;
+            this.destinationY = destinationY;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return startX == k.startX && startY == k.startY && destinationX == k.destinationX && destinationY == k.destinationY;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = startX;
+            h = 31 * h + startY;
+            h = 31 * h + destinationX;
+            return 31 * h + destinationY;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+import java.util.List;
+
+/**
+ * A shortest-route search over a CartSegmentGraph. Implementations keep no per-query state
+ * in fields, so one engine can serve any number of queries.
+ */
+public interface RouteEngine {
+
+    /**
+     * Finds the fastest route from start to destination and adds the work done to stats.
+     * @return List of RouteDirection instances
+     */
+    List<RouteDirection> findRoute(CartSegmentGraph graph, Point start, Point destination, SearchStats stats);
+
+    default List<RouteDirection> findRoute(CartSegmentGraph graph, Point start, Point destination) {
+        return findRoute(graph, start, destination, new SearchStats());
+    }
+}
@@ -0,0 +1,159 @@
+import java.io.*;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed station-to-station index for a fixed cart network. Building it runs one
+ * shortest-path tree per cart station (in parallel) and keeps the full travel-time table
+ * together with the predecessor of every tree, so a query only has to combine the walk to a
+ * boarding station, a table lookup and the walk from the last station. Walking between any two
+ * points makes the graph complete, which leaves a contraction hierarchy no edges to save, so
+ * the table is the cheaper index here.
+ *
+ * The table takes stationCount^2 doubles and ints, which suits cart networks of up to a few
+ * thousand stations. Routes are optimal as long as carts are at least as fast as walking.
+ */
+public class RouteIndex implements Serializable {
+    static final long serialVersionUID = 113L;
+
+    public final CartSegmentGraph graph;
+    private final double[] times;
+    private final int[] predecessors;
+
+    private RouteIndex(CartSegmentGraph graph, double[] times, int[] predecessors) {
+        this.graph = graph;
+        this.times = times;
+        this.predecessors = predecessors;
+    }
+
+    public static RouteIndex build(CartSegmentGraph graph) {
+        int m = graph.stationCount;
+        if ((long) m * m > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many stations to index: " + m);
+        }
+        double[] times = new double[m * m];
+        int[] predecessors = new int[m * m];
+        DijkstraRouteEngine engine = new DijkstraRouteEngine();
+        IntStream.range(0, m).parallel().forEach(a -> {
+            double[] dist = new double[m];
+            int[] pred = new int[m];
+            engine.travelTimesFromStation(graph, a, dist, pred, new SearchStats());
+            System.arraycopy(dist, 0, times, a * m, m);
+            System.arraycopy(pred, 0, predecessors, a * m, m);
+        });
+        return new RouteIndex(graph, times, predecessors);
+    }
+
+    /**
+     * @return the fastest travel time between two cart stations
+     */
+    public double stationTime(int from, int to) {
+        return times[from * graph.stationCount + to];
+    }
+
+    /**
+     * Calculates the fastest route between two points from the precomputed table.
+     * @return List of RouteDirection instances
+     */
+    public List<RouteDirection> route(Point start, Point destination) {
+        RouteQuery query = graph.query(start, destination);
+        int m = graph.stationCount;
+        double walkingSpeed = graph.walkingSpeed;
+        double maxSpeed = Math.max(graph.cartSpeed, walkingSpeed);
+        double best = CartSegmentGraph.travelTime(start.x, start.y, destination.x, destination.y, walkingSpeed);
+
+        // Boarding and alighting candidates that could still beat the direct walk
+        double[] access = new double[m];
+        double[] egress = new double[m];
+        long[] boarding = new long[m];
+        long[] alighting = new long[m];
+        int boardingCount = 0;
+        int alightingCount = 0;
+        for (int v = 0; v < m; v++) {
+            double fromStart = distance(start.x, start.y, graph.xs[v], graph.ys[v]);
+            double toDestination = distance(graph.xs[v], graph.ys[v], destination.x, destination.y);
+            access[v] = fromStart / walkingSpeed;
+            egress[v] = toDestination / walkingSpeed;
+            if (access[v] + toDestination / maxSpeed < best) {
+                boarding[boardingCount++] = sortKey(access[v], v);
+            }
+            if (fromStart / maxSpeed + egress[v] < best) {
+                alighting[alightingCount++] = sortKey(egress[v], v);
+            }
+        }
+        Arrays.sort(boarding, 0, boardingCount);
+        Arrays.sort(alighting, 0, alightingCount);
+        double minEgress = alightingCount > 0 ? egress[(int) alighting[0]] : Double.MAX_VALUE;
+
+        // Candidates are sorted by a float copy of their time, so stop with a small safety margin
+        int bestBoard = -1;
+        int bestAlight = -1;
+        for (int i = 0; i < boardingCount; i++) {
+            int a = (int) boarding[i];
+            double toBoard = access[a];
+            if (toBoard * SORT_MARGIN + minEgress >= best) {
+                break;
+            }
+            int row = a * m;
+            for (int j = 0; j < alightingCount; j++) {
+                int b = (int) alighting[j];
+                if (toBoard + egress[b] * SORT_MARGIN >= best) {
+                    break;
+                }
+                double total = toBoard + times[row + b] + egress[b];
+                if (total < best) {
+                    best = total;
+                    bestBoard = a;
+                    bestAlight = b;
+                }
+            }
+        }
+
+        if (bestBoard < 0) {
+            return query.directionsAlong(new int[]{query.source, query.target});
+        }
+        int stationSteps = 0;
+        int row = bestBoard * m;
+        for (int v = bestAlight; v != bestBoard; v = predecessors[row + v]) {
+            stationSteps++;
+        }
+        int[] path = new int[stationSteps + 3];
+        path[0] = query.source;
+        path[path.length - 1] = query.target;
+        int v = bestAlight;
+        for (int i = stationSteps + 1; i >= 1; i--) {
+            path[i] = v;
+            v = i > 1 ? predecessors[row + v] : v;
+        }
+        return query.directionsAlong(path);
+    }
+
+    private static final double SORT_MARGIN = 1 - 1e-6;
+
+    /**
+     * Packs a non-negative time and a station id into a long that sorts by time first.
+     */
+    private static long sortKey(double time, int station) {
+        return ((long) Float.floatToIntBits((float) time) << 32) | station;
+    }
+
+    private static double distance(int x1, int y1, int x2, int y2) {
+        double dx = x1 - x2;
+        double dy = y1 - y2;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    public void save(String filename) throws IOException {
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(filename)))) {
+            out.writeObject(this);
+        }
+    }
+
+    public static RouteIndex load(String filename) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(filename)))) {
+            return (RouteIndex) in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Not a route index: " + filename, e);
+        }
+    }
+}
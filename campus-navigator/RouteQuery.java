@@ -0,0 +1,162 @@
+import java.util.*;
+
+/**
+ * A single start/destination question against a CartSegmentGraph. The cart stations keep
+ * their graph ids, the start becomes node stationCount and the destination node
+ * stationCount + 1. A query without a destination (one-to-all searches) only adds the start,
+ * and a station query starts from an existing station without adding any node.
+ * Queries are immutable, so any number of them can share one graph.
+ */
+public class RouteQuery {
+    public final CartSegmentGraph graph;
+    public final int source;
+    public final int target;
+    public final int nodeCount;
+    private final int sourceX, sourceY, targetX, targetY;
+
+    RouteQuery(CartSegmentGraph graph, Point start, Point destination) {
+        this.graph = graph;
+        this.source = graph.stationCount;
+        this.sourceX = start.x;
+        this.sourceY = start.y;
+        if (destination != null) {
+            this.target = graph.stationCount + 1;
+            this.targetX = destination.x;
+            this.targetY = destination.y;
+            this.nodeCount = graph.stationCount + 2;
+        } else {
+            this.target = -1;
+            this.targetX = 0;
+            this.targetY = 0;
+            this.nodeCount = graph.stationCount + 1;
+        }
+    }
+
+    RouteQuery(CartSegmentGraph graph, int sourceStation) {
+        this.graph = graph;
+        this.source = sourceStation;
+        this.target = -1;
+        this.nodeCount = graph.stationCount;
+        this.sourceX = graph.xs[sourceStation];
+        this.sourceY = graph.ys[sourceStation];
+        this.targetX = 0;
+        this.targetY = 0;
+    }
+
+    public int x(int node) {
+        if (node < graph.stationCount) {
+            return graph.xs[node];
+        }
+        return node == source ? sourceX : targetX;
+    }
+
+    public int y(int node) {
+        if (node < graph.stationCount) {
+            return graph.ys[node];
+        }
+        return node == source ? sourceY : targetY;
+    }
+
+    public String name(int node) {
+        if (node < graph.stationCount) {
+            return graph.names[node];
+        }
+        return node == source ? CartSegmentGraph.START_NAME : CartSegmentGraph.DESTINATION_NAME;
+    }
+
+    public double walkTime(int u, int v) {
+        return CartSegmentGraph.travelTime(x(u), y(u), x(v), y(v), graph.walkingSpeed);
+    }
+
+    /**
+     * @return the index into graph.targets of the cart segment u-v, or -1 if they are not joined by one
+     */
+    public int cartEdge(int u, int v) {
+        if (u >= graph.stationCount || v >= graph.stationCount) {
+            return -1;
+        }
+        for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+            if (graph.targets[e] == v) {
+                return e;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Travel time between two nodes: the cart time if a segment joins them, otherwise the walking time.
+     */
+    public double edgeTime(int u, int v) {
+        int e = cartEdge(u, v);
+        return e >= 0 ? graph.weights[e] : walkTime(u, v);
+    }
+
+    /**
+     * Follows the predecessor array back from the destination and turns the path into directions.
+     * @return List of RouteDirection instances
+     */
+    public List<RouteDirection> directions(int[] predecessors) {
+        int steps = 0;
+        for (int v = target; predecessors[v] >= 0; v = predecessors[v]) {
+            steps++;
+        }
+        int[] path = new int[steps + 1];
+        int v = target;
+        for (int i = steps; i >= 0; i--) {
+            path[i] = v;
+            v = i > 0 ? predecessors[v] : v;
+        }
+        return directionsAlong(path);
+    }
+
+    /**
+     * Turns a node sequence into directions, one step per consecutive pair. On a graph with
+     * merged stops a ride stays on the line of the previous ride where that line also serves the
+     * segment, and stations are named as the line ridden to or from them calls them, so a change
+     * of line at a transfer node shows up as two differently named ends.
+     * @return List of RouteDirection instances
+     */
+    public List<RouteDirection> directionsAlong(int[] path) {
+        int steps = Math.max(path.length - 1, 0);
+        int[] edges = new int[steps];
+        for (int i = 0; i < steps; i++) {
+            edges[i] = cartEdge(path[i], path[i + 1]);
+            if (graph.isMerged() && i > 0 && edges[i] >= 0 && edges[i - 1] >= 0) {
+                edges[i] = sameLineEdge(path[i], path[i + 1], graph.edgeLines[edges[i - 1]], edges[i]);
+            }
+        }
+        List<RouteDirection> route = new ArrayList<>(steps);
+        for (int i = 0; i < steps; i++) {
+            int u = path[i];
+            int v = path[i + 1];
+            int e = edges[i];
+            double duration = e >= 0 ? graph.weights[e] : walkTime(u, v);
+            String from = name(u, e >= 0 ? e : i > 0 ? edges[i - 1] : -1);
+            String to = name(v, e >= 0 ? e : i + 1 < steps ? edges[i + 1] : -1);
+            route.add(new RouteDirection(from, to, duration, e >= 0));
+        }
+        return route;
+    }
+
+    /**
+     * @return the node's name on the line of segment e, or name(node) if e is -1 or stops are not merged
+     */
+    private String name(int node, int e) {
+        if (e < 0 || !graph.isMerged()) {
+            return name(node);
+        }
+        return graph.stopName(node, graph.edgeLines[e]);
+    }
+
+    /**
+     * @return the segment u-v of the given line, or fallback if that line does not join them
+     */
+    private int sameLineEdge(int u, int v, int line, int fallback) {
+        for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+            if (graph.targets[e] == v && graph.edgeLines[e] == line) {
+                return e;
+            }
+        }
+        return fallback;
+    }
+}
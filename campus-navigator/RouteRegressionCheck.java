@@ -0,0 +1,57 @@
+import java.util.*;
+
+/**
+ * Command line regression check for the routing modes. Each .dat file given as an argument is
+ * routed with every CampusNavigatorApp.RoutingMode and the directions are compared step by step
+ * against the ALL_PAIRS reference. The work counters of the RouteEngine modes are printed
+ * alongside. Exits with status 1 if any mode disagrees.
+ */
+public class RouteRegressionCheck {
+
+    public static void main(String[] args) {
+        Locale.setDefault(new Locale("en", "EN"));
+        boolean allMatch = true;
+        for (String filename : args) {
+            CampusNavigatorApp reference = new CampusNavigatorApp();
+            CampusNavigatorNetwork network = reference.readCampusNavigatorNetwork(filename);
+            List<RouteDirection> expected = reference.getFastestRouteDirections(network);
+
+            for (CampusNavigatorApp.RoutingMode mode : CampusNavigatorApp.RoutingMode.values()) {
+                CampusNavigatorApp app = new CampusNavigatorApp();
+                app.routingMode = mode;
+                SearchStats stats = new SearchStats();
+                List<RouteDirection> actual = app.getFastestRouteDirections(network, stats);
+                String mismatch = firstMismatch(expected, actual);
+                if (mismatch != null) {
+                    allMatch = false;
+                    System.out.printf("%s [%s] MISMATCH: %s%n", filename, mode, mismatch);
+                } else {
+                    System.out.printf("%s [%s] OK (%d steps, %s)%n", filename, mode, actual.size(), stats);
+                }
+            }
+        }
+        if (!allMatch) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return a description of the first differing step, or null if both routes are identical
+     */
+    public static String firstMismatch(List<RouteDirection> expected, List<RouteDirection> actual) {
+        for (int i = 0; i < Math.min(expected.size(), actual.size()); i++) {
+            RouteDirection e = expected.get(i);
+            RouteDirection a = actual.get(i);
+            if (!e.startStationName.equals(a.startStationName) || !e.endStationName.equals(a.endStationName)
+                    || Double.compare(e.duration, a.duration) != 0 || e.cartRide != a.cartRide) {
+                return String.format("step %d expected %s -> %s (%f) but was %s -> %s (%f)", i + 1,
+                        e.startStationName, e.endStationName, e.duration,
+                        a.startStationName, a.endStationName, a.duration);
+            }
+        }
+        if (expected.size() != actual.size()) {
+            return String.format("expected %d steps but was %d", expected.size(), actual.size());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * Work counters for a single route search.
+ */
+public class SearchStats {
+    public long settledNodes;
+    public long relaxedEdges;
+    public long heapPushes;
+
+    public void reset() {
+        settledNodes = 0;
+        relaxedEdges = 0;
+        heapPushes = 0;
+    }
+
+    public String toString() {
+        return "settled=" + settledNodes + ", relaxed=" + relaxedEdges + ", pushes=" + heapPushes;
+    }
+}
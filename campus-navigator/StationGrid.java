@@ -0,0 +1,160 @@
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Uniform grid over the cart station coordinates of a CartSegmentGraph. Stations are bucketed
+ * into square cells in CSR form (cellStart / cellStations), sized for roughly two stations per
+ * cell, so radius and k-nearest lookups only touch the cells around the query point.
+ */
+public class StationGrid implements Serializable {
+    static final long serialVersionUID = 114L;
+
+    private final int[] xs;
+    private final int[] ys;
+    private final int minX;
+    private final int minY;
+    private final int cellSize;
+    private final int cols;
+    private final int rows;
+    private final int[] cellStart;
+    private final int[] cellStations;
+
+    public StationGrid(int[] xs, int[] ys) {
+        this.xs = xs;
+        this.ys = ys;
+        int m = xs.length;
+        int loX = Integer.MAX_VALUE, loY = Integer.MAX_VALUE, hiX = Integer.MIN_VALUE, hiY = Integer.MIN_VALUE;
+        for (int v = 0; v < m; v++) {
+            loX = Math.min(loX, xs[v]);
+            loY = Math.min(loY, ys[v]);
+            hiX = Math.max(hiX, xs[v]);
+            hiY = Math.max(hiY, ys[v]);
+        }
+        if (m == 0) {
+            loX = loY = hiX = hiY = 0;
+        }
+        long width = (long) hiX - loX + 1;
+        long height = (long) hiY - loY + 1;
+        int size = (int) Math.max(1, Math.ceil(Math.sqrt(2.0 * width * height / Math.max(m, 1))));
+        this.minX = loX;
+        this.minY = loY;
+        this.cellSize = size;
+        this.cols = (int) ((width + size - 1) / size);
+        this.rows = (int) ((height + size - 1) / size);
+
+        int cells = cols * rows;
+        int[] cellOf = new int[m];
+        int[] counts = new int[cells + 1];
+        for (int v = 0; v < m; v++) {
+            cellOf[v] = (ys[v] - minY) / cellSize * cols + (xs[v] - minX) / cellSize;
+            counts[cellOf[v] + 1]++;
+        }
+        for (int c = 0; c < cells; c++) {
+            counts[c + 1] += counts[c];
+        }
+        this.cellStart = counts;
+        this.cellStations = new int[m];
+        int[] fill = Arrays.copyOf(counts, cells);
+        for (int v = 0; v < m; v++) {
+            cellStations[fill[cellOf[v]]++] = v;
+        }
+    }
+
+    /**
+     * Collects every station within radius of (x, y) into out, which must hold stationCount ids.
+     * @return the number of stations written
+     */
+    public int withinRadius(int x, int y, double radius, int[] out) {
+        if (cellStations.length == 0 || radius < 0) {
+            return 0;
+        }
+        int c0 = clampCol(Math.floor((x - radius - minX) / cellSize));
+        int c1 = clampCol(Math.floor((x + radius - minX) / cellSize));
+        int r0 = clampRow(Math.floor((y - radius - minY) / cellSize));
+        int r1 = clampRow(Math.floor((y + radius - minY) / cellSize));
+        double limit = radius * radius;
+        int count = 0;
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * cols + c;
+                for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                    int v = cellStations[i];
+                    double dx = xs[v] - x;
+                    double dy = ys[v] - y;
+                    if (dx * dx + dy * dy <= limit) {
+                        out[count++] = v;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    public int[] withinRadius(int x, int y, double radius) {
+        int[] out = new int[cellStations.length];
+        return Arrays.copyOf(out, withinRadius(x, y, radius, out));
+    }
+
+    /**
+     * @return up to k station ids ordered by increasing distance from (x, y)
+     */
+    public int[] nearest(int x, int y, int k) {
+        k = Math.min(k, cellStations.length);
+        int[] best = new int[k];
+        double[] bestDist = new double[k];
+        int found = 0;
+        if (k == 0) {
+            return best;
+        }
+        // Rings are measured from the point clamped into the grid, which never overestimates distances
+        int cx = clampCol(Math.floor((double) (x - minX) / cellSize));
+        int cy = clampRow(Math.floor((double) (y - minY) / cellSize));
+        int maxRing = Math.max(cols, rows);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            if (found == k && (double) (ring - 1) * cellSize > Math.sqrt(bestDist[k - 1])) {
+                break;
+            }
+            for (int r = cy - ring; r <= cy + ring; r++) {
+                if (r < 0 || r >= rows) {
+                    continue;
+                }
+                boolean edgeRow = r == cy - ring || r == cy + ring;
+                int step = edgeRow ? 1 : Math.max(2 * ring, 1);
+                for (int c = cx - ring; c <= cx + ring; c += step) {
+                    if (c < 0 || c >= cols) {
+                        continue;
+                    }
+                    int cell = r * cols + c;
+                    for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                        int v = cellStations[i];
+                        double dx = xs[v] - x;
+                        double dy = ys[v] - y;
+                        double d = dx * dx + dy * dy;
+                        if (found < k) {
+                            found++;
+                        } else if (d >= bestDist[k - 1]) {
+                            continue;
+                        }
+                        int pos = found - 1;
+                        while (pos > 0 && bestDist[pos - 1] > d) {
+                            best[pos] = best[pos - 1];
+                            bestDist[pos] = bestDist[pos - 1];
+                            pos--;
+                        }
+                        best[pos] = v;
+                        bestDist[pos] = d;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private int clampCol(double col) {
+        return (int) Math.max(0, Math.min(cols - 1, col));
+    }
+
+    private int clampRow(double row) {
+        return (int) Math.max(0, Math.min(rows - 1, row));
+    }
+}
@@ -1,4 +1,5 @@
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.List;
 
 public class Task implements Serializable {
@@ -7,12 +8,17 @@ public class Task implements Serializable {
     private final String description;
     private final int duration;
     private final List<Integer> dependencies;
+    /** Content hash, computed on first use; 0 means not yet computed. */
+    private transient int hash;
 
+    /**
+     * The dependency list is not copied; it must not be changed afterwards.
+     */
     public Task(int taskID, String description, int duration, List<Integer> dependencies) {
         this.taskID = taskID;
         this.description = description;
         this.duration = duration;
-        this.dependencies = dependencies;
+        this.dependencies = Collections.unmodifiableList(dependencies);
     }
 
     public int getTaskID() {
@@ -38,4 +44,14 @@ public class Task implements Serializable {
         Task task = (Task) o;
         return taskID == task.taskID && duration == task.duration && description.equals(task.description) && dependencies.equals(task.dependencies);
     }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = 31 * (31 * (31 * taskID + duration) + description.hashCode()) + dependencies.hashCode();
+            hash = h;
+        }
+        return h;
+    }
 }
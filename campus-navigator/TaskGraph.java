@@ -0,0 +1,281 @@
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Compiled dependency graph of a project's tasks. Tasks are addressed by their position in the
+ * task list; task ids may be sparse and are mapped to positions once, while building. Each
+ * task's dependents are stored in CSR form (offsets / successors) and order holds a topological
+ * order, so schedules are computed with plain int loops and no boxing.
+ */
+public class TaskGraph implements Serializable {
+    static final long serialVersionUID = 116L;
+
+    public final int taskCount;
+    public final int[] ids;
+    public final int[] durations;
+    public final int[] offsets;
+    public final int[] successors;
+    public final int[] order;
+    private final TaskIdIndex index;
+
+    private TaskGraph(int[] ids, int[] durations, int[] offsets, int[] successors, int[] order, TaskIdIndex index) {
+        this.taskCount = ids.length;
+        this.ids = ids;
+        this.durations = durations;
+        this.offsets = offsets;
+        this.successors = successors;
+        this.order = order;
+        this.index = index;
+    }
+
+    public static TaskGraph compile(List<Task> tasks) {
+        int n = tasks.size();
+        int[] ids = new int[n];
+        int[] durations = new int[n];
+        int[] dependencyStart = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            Task t = tasks.get(i);
+            ids[i] = t.getTaskID();
+            durations[i] = t.getDuration();
+            dependencyStart[i + 1] = dependencyStart[i] + t.getDependencies().size();
+        }
+        int[] dependencies = new int[dependencyStart[n]];
+        int d = 0;
+        for (Task t : tasks) {
+            for (int prerequisite : t.getDependencies()) {
+                dependencies[d++] = prerequisite;
+            }
+        }
+        return build(ids, durations, dependencyStart, dependencies);
+    }
+
+    /**
+     * Builds the graph from primitive arrays: task i has id ids[i], lasts durations[i] days and
+     * depends on the task ids dependencies[dependencyStart[i] .. dependencyStart[i + 1]).
+     * @throws IllegalArgumentException if a task id repeats or a dependency names an unknown id
+     * @throws CyclicDependencyException if the dependencies contain a cycle
+     */
+    public static TaskGraph build(int[] ids, int[] durations, int[] dependencyStart, int[] dependencies) {
+        int n = ids.length;
+        int edgeCount = dependencyStart[n];
+        int[] prerequisites = new int[edgeCount];
+        TaskIdIndex index = new TaskIdIndex(ids);
+        for (int e = 0; e < edgeCount; e++) {
+            prerequisites[e] = index.positionOf(dependencies[e]);
+        }
+
+        // Dependents per task in CSR form, counted with one pass over the prerequisites
+        int[] offsets = new int[n + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            offsets[prerequisites[e] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] successors = new int[edgeCount];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int i = 0; i < n; i++) {
+            for (int e = dependencyStart[i]; e < dependencyStart[i + 1]; e++) {
+                successors[fill[prerequisites[e]]++] = i;
+            }
+        }
+
+        // Kahn's algorithm; order doubles as the FIFO queue since every task enters it once
+        int[] remaining = new int[n];
+        for (int i = 0; i < n; i++) {
+            remaining[i] = dependencyStart[i + 1] - dependencyStart[i];
+        }
+        int[] order = new int[n];
+        int tail = 0;
+        for (int i = 0; i < n; i++) {
+            if (remaining[i] == 0) {
+                order[tail++] = i;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            int u = order[head];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = successors[e];
+                if (--remaining[v] == 0) {
+                    order[tail++] = v;
+                }
+            }
+        }
+        if (tail < n) {
+            throw new CyclicDependencyException(findCycle(ids, dependencyStart, prerequisites, remaining));
+        }
+        return new TaskGraph(ids.clone(), durations.clone(), offsets, successors, order, index);
+    }
+
+    /**
+     * @return the position in the task list of the task with the given id
+     * @throws IllegalArgumentException if no task has that id
+     */
+    public int positionOf(int taskId) {
+        return index.positionOf(taskId);
+    }
+
+    /**
+     * @return the earliest start day of every task, indexed by position in the task list
+     */
+    public int[] earliestStart() {
+        int[] earliest = new int[taskCount];
+        for (int u : order) {
+            int finish = earliest[u] + durations[u];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = successors[e];
+                if (finish > earliest[v]) {
+                    earliest[v] = finish;
+                }
+            }
+        }
+        return earliest;
+    }
+
+    /**
+     * Runs a forward and a backward pass over the topological order.
+     * @return earliest and latest start days, slack and one critical chain
+     */
+    public CriticalPathAnalysis analyze() {
+        int n = taskCount;
+        int[] earliest = new int[n];
+        int[] criticalPredecessor = new int[n];
+        Arrays.fill(criticalPredecessor, -1);
+        for (int u : order) {
+            int finish = earliest[u] + durations[u];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = successors[e];
+                if (finish > earliest[v] || criticalPredecessor[v] < 0 && finish == earliest[v]) {
+                    earliest[v] = finish;
+                    criticalPredecessor[v] = u;
+                }
+            }
+        }
+
+        int duration = 0;
+        int last = -1;
+        for (int i = 0; i < n; i++) {
+            if (earliest[i] + durations[i] > duration || last < 0) {
+                duration = earliest[i] + durations[i];
+                last = i;
+            }
+        }
+
+        int[] latest = new int[n];
+        for (int k = n - 1; k >= 0; k--) {
+            int u = order[k];
+            int finish = duration;
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                finish = Math.min(finish, latest[successors[e]]);
+            }
+            latest[u] = finish - durations[u];
+        }
+        int[] slack = new int[n];
+        for (int i = 0; i < n; i++) {
+            slack[i] = latest[i] - earliest[i];
+        }
+
+        int chainLength = 0;
+        for (int v = last; v >= 0; v = criticalPredecessor[v]) {
+            chainLength++;
+        }
+        int[] chain = new int[chainLength];
+        for (int v = last, i = chainLength - 1; v >= 0; v = criticalPredecessor[v], i--) {
+            chain[i] = v;
+        }
+        return new CriticalPathAnalysis(duration, earliest, latest, slack, chain);
+    }
+
+    /**
+     * Follows prerequisites among the tasks Kahn's algorithm could not order until one repeats.
+     * Every such task still waits on a prerequisite that was never ordered either.
+     * @return the task ids along the cycle in dependency order, starting and ending with the same id
+     */
+    private static int[] findCycle(int[] ids, int[] dependencyStart, int[] prerequisites, int[] remaining) {
+        int n = ids.length;
+        int start = 0;
+        while (remaining[start] == 0) {
+            start++;
+        }
+        int[] step = new int[n];
+        Arrays.fill(step, -1);
+        int[] walk = new int[n];
+        int length = 0;
+        int u = start;
+        while (step[u] < 0) {
+            step[u] = length;
+            walk[length++] = u;
+            int next = -1;
+            for (int e = dependencyStart[u]; e < dependencyStart[u + 1] && next < 0; e++) {
+                if (remaining[prerequisites[e]] > 0) {
+                    next = prerequisites[e];
+                }
+            }
+            u = next;
+        }
+        // The walk went from dependents to prerequisites, so read it backwards
+        int cycleLength = length - step[u];
+        int[] cycle = new int[cycleLength + 1];
+        cycle[0] = ids[u];
+        for (int i = 1; i < cycleLength; i++) {
+            cycle[i] = ids[walk[length - i]];
+        }
+        cycle[cycleLength] = ids[u];
+        return cycle;
+    }
+
+    /**
+     * Maps task ids to positions. Ids that already equal their position need no lookup table;
+     * otherwise the (id, position) pairs are sorted once and searched with a binary search.
+     */
+    private static class TaskIdIndex implements Serializable {
+        static final long serialVersionUID = 118L;
+
+        private final int count;
+        private final long[] sorted;
+
+        TaskIdIndex(int[] ids) {
+            count = ids.length;
+            boolean dense = true;
+            for (int i = 0; i < ids.length && dense; i++) {
+                dense = ids[i] == i;
+            }
+            if (dense) {
+                sorted = null;
+                return;
+            }
+            sorted = new long[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                sorted[i] = ((long) ids[i] << 32) | i;
+            }
+            Arrays.sort(sorted);
+            for (int i = 1; i < sorted.length; i++) {
+                if ((int) (sorted[i] >> 32) == (int) (sorted[i - 1] >> 32)) {
+                    throw new IllegalArgumentException("Duplicate task id: " + (int) (sorted[i] >> 32));
+                }
+            }
+        }
+
+        int positionOf(int id) {
+            if (sorted == null) {
+                if (id < 0 || id >= count) {
+                    throw new IllegalArgumentException("Unknown task id: " + id);
+                }
+                return id;
+            }
+            int lo = 0, hi = sorted.length - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int midId = (int) (sorted[mid] >> 32);
+                if (midId < id) {
+                    lo = mid + 1;
+                } else if (midId > id) {
+                    hi = mid - 1;
+                } else {
+                    return (int) sorted[mid];
+                }
+            }
+            throw new IllegalArgumentException("Unknown task id: " + id);
+        }
+    }
+}
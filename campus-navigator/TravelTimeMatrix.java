@@ -0,0 +1,81 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Batch travel times between arbitrary points, using the same walk-plus-cart model as the
+ * route engines. Each source runs one shortest-path tree over the shared CartSegmentGraph;
+ * the time to a target is then the direct walk or the best station time plus the walk from
+ * that station. Sources of a many-to-many request are spread over a ForkJoinPool.
+ */
+public class TravelTimeMatrix {
+    private final CartSegmentGraph graph;
+    private final ForkJoinPool pool;
+    private final DijkstraRouteEngine engine = new DijkstraRouteEngine();
+
+    /**
+     * Receives one finished matrix row. Rows arrive in completion order, not source order, but
+     * never concurrently. The row array is reused once accept returns, so copy it to keep it.
+     */
+    public interface RowConsumer {
+        void accept(int sourceIndex, double[] row);
+    }
+
+    public TravelTimeMatrix(CartSegmentGraph graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    public TravelTimeMatrix(CartSegmentGraph graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+    }
+
+    /**
+     * @return the fastest travel time in minutes from source to each target
+     */
+    public double[] oneToMany(Point source, Point[] targets) {
+        double[] row = new double[targets.length];
+        fillRow(source, targets, row, new SearchStats());
+        return row;
+    }
+
+    /**
+     * Computes the full sources x targets matrix and streams it to the consumer row by row.
+     */
+    public void manyToMany(Point[] sources, Point[] targets, RowConsumer consumer) {
+        ThreadLocal<double[]> rows = ThreadLocal.withInitial(() -> new double[targets.length]);
+        pool.submit(() -> IntStream.range(0, sources.length).parallel().forEach(i -> {
+            double[] row = rows.get();
+            fillRow(sources[i], targets, row, new SearchStats());
+            synchronized (consumer) {
+                consumer.accept(i, row);
+            }
+        })).join();
+    }
+
+    /**
+     * Convenience wrapper that keeps the whole matrix, for sizes that fit in memory.
+     */
+    public double[][] manyToMany(Point[] sources, Point[] targets) {
+        double[][] matrix = new double[sources.length][];
+        manyToMany(sources, targets, (i, row) -> matrix[i] = row.clone());
+        return matrix;
+    }
+
+    void fillRow(Point source, Point[] targets, double[] row, SearchStats stats) {
+        double[] dist = engine.travelTimesFrom(graph, source, stats);
+        int m = graph.stationCount;
+        double walkingSpeed = graph.walkingSpeed;
+        for (int t = 0; t < targets.length; t++) {
+            int tx = targets[t].x;
+            int ty = targets[t].y;
+            double best = CartSegmentGraph.travelTime(source.x, source.y, tx, ty, walkingSpeed);
+            for (int v = 0; v < m; v++) {
+                double time = dist[v] + CartSegmentGraph.travelTime(graph.xs[v], graph.ys[v], tx, ty, walkingSpeed);
+                if (time < best) {
+                    best = time;
+                }
+            }
+            row[t] = best;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Seeded generator for large inputs: navigation .dat files in the format CampusNavigatorNetwork
+ * reads and club fair XML files in the schema ClubFairSetupPlanner.readXML reads. Everything is
+ * written straight to the target Writer while it is generated, so memory use does not depend on
+ * the size of the output and multi-gigabyte files can be produced. The same seed and options
+ * always produce the same file.
+ *
+ * Usage:
+ *   java WorkloadGenerator campus out.dat [lines] [stations per line] [uniform|grid|clustered|radial] [seed]
+ *   java WorkloadGenerator fair out.xml [projects] [width] [depth] [fan-in] [seed]
+ */
+public class WorkloadGenerator {
+    private static final int EXTENT = 10000;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * How cart stations are spread over the campus.
+     */
+    public enum Layout {
+        /** Stations anywhere on the campus, in random order. */
+        UNIFORM,
+        /** Lines alternate between evenly spaced east-west and north-south streets, with evenly spaced stations. */
+        GRID,
+        /** Lines hop between a few dense clusters, like buildings around several quads. */
+        CLUSTERED,
+        /** Lines run outward from the campus center like spokes. */
+        RADIAL
+    }
+
+    /**
+     * Picks the prerequisites of one task; they must all have lower task ids.
+     */
+    private interface DependencyPicker {
+        int[] dependencies(int task, Random random);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: java WorkloadGenerator campus <out.dat> [lines] [stations per line] [layout] [seed]");
+            System.err.println("       java WorkloadGenerator fair <out.xml> [projects] [width] [depth] [fan-in] [seed]");
+            System.exit(2);
+        }
+        try (Writer out = Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.UTF_8)) {
+            if (args[0].equals("campus")) {
+                int lines = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+                int stations = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+                Layout layout = args.length > 4 ? Layout.valueOf(args[4].toUpperCase(Locale.ROOT)) : Layout.UNIFORM;
+                long seed = args.length > 5 ? Long.parseLong(args[5]) : 42;
+                writeCampus(out, lines, stations, layout, seed);
+            } else if (args[0].equals("fair")) {
+                int projects = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+                int width = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+                int depth = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+                int fanIn = args.length > 5 ? Integer.parseInt(args[5]) : 2;
+                long seed = args.length > 6 ? Long.parseLong(args[6]) : 42;
+                writeFair(out, projects, width, depth, fanIn, seed);
+            } else {
+                throw new IllegalArgumentException("Unknown workload: " + args[0]);
+            }
+        }
+    }
+
+    /**
+     * Writes a campus with the given number of cart lines and stations per line.
+     */
+    public static void writeCampus(Writer writer, int lines, int stationsPerLine, Layout layout, long seed) throws IOException {
+        Writer out = buffered(writer);
+        Random random = new Random(seed);
+        out.write("num_cart_lines = " + lines + "\n");
+        out.write("starting_point = (" + random.nextInt(EXTENT + 1) + ", " + random.nextInt(EXTENT + 1) + ")\n");
+        out.write("destination_point = (" + random.nextInt(EXTENT + 1) + ", " + random.nextInt(EXTENT + 1) + ")\n");
+        out.write("average_cart_speed = " + (20 + random.nextInt(30)) + "\n");
+
+        int clusters = Math.max(2, (int) Math.sqrt(lines));
+        int[] clusterX = new int[clusters];
+        int[] clusterY = new int[clusters];
+        for (int c = 0; c < clusters; c++) {
+            clusterX[c] = EXTENT / 10 + random.nextInt(EXTENT * 8 / 10);
+            clusterY[c] = EXTENT / 10 + random.nextInt(EXTENT * 8 / 10);
+        }
+        int streets = (lines + 1) / 2;
+
+        for (int l = 0; l < lines; l++) {
+            out.write("\ncart_line_name = \"Line " + (l + 1) + "\"\ncart_line_stations =");
+            int cluster = random.nextInt(clusters);
+            double angle = 2 * Math.PI * l / lines;
+            for (int s = 0; s < stationsPerLine; s++) {
+                int x;
+                int y;
+                switch (layout) {
+                    case GRID: {
+                        int along = (int) ((long) EXTENT * s / Math.max(1, stationsPerLine - 1));
+                        int across = (int) ((long) EXTENT * (l / 2 + 1) / (streets + 1));
+                        x = l % 2 == 0 ? along : across;
+                        y = l % 2 == 0 ? across : along;
+                        break;
+                    }
+                    case CLUSTERED: {
+                        if (s > 0 && random.nextInt(4) == 0) {
+                            cluster = random.nextInt(clusters);
+                        }
+                        double spread = EXTENT / 40.0;
+                        x = clamp((int) Math.round(clusterX[cluster] + random.nextGaussian() * spread));
+                        y = clamp((int) Math.round(clusterY[cluster] + random.nextGaussian() * spread));
+                        break;
+                    }
+                    case RADIAL: {
+                        double radius = EXTENT / 2.0 * (s + 1) / stationsPerLine;
+                        x = clamp((int) Math.round(EXTENT / 2.0 + radius * Math.cos(angle)));
+                        y = clamp((int) Math.round(EXTENT / 2.0 + radius * Math.sin(angle)));
+                        break;
+                    }
+                    default:
+                        x = random.nextInt(EXTENT + 1);
+                        y = random.nextInt(EXTENT + 1);
+                }
+                out.write(" (");
+                out.write(Integer.toString(x));
+                out.write(", ");
+                out.write(Integer.toString(y));
+                out.write(')');
+            }
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes projects whose tasks form depth layers of width tasks each. Every task after the
+     * first layer depends on fanIn distinct tasks of the layer right before it (fewer if the
+     * layer is narrower), so depth sets the critical path length and width the parallelism.
+     */
+    public static void writeFair(Writer writer, int projects, int width, int depth, int fanIn, long seed) throws IOException {
+        int[] picked = new int[Math.max(0, Math.min(fanIn, width))];
+        writeFair(writer, projects, width * depth, seed, (task, random) -> {
+            int layer = task / width;
+            if (layer == 0) {
+                return new int[0];
+            }
+            int found = 0;
+            while (found < picked.length) {
+                int id = (layer - 1) * width + random.nextInt(width);
+                boolean repeat = false;
+                for (int i = 0; i < found && !repeat; i++) {
+                    repeat = picked[i] == id;
+                }
+                if (!repeat) {
+                    picked[found++] = id;
+                }
+            }
+            return picked;
+        });
+    }
+
+    /**
+     * Writes projects of tasksPerProject tasks each, laid out in the given shape.
+     */
+    public static void writeFair(Writer writer, int projects, int tasksPerProject, DagShape shape, long seed) throws IOException {
+        writeFair(writer, projects, tasksPerProject, seed, (task, random) -> shape.dependencies(task, tasksPerProject, random));
+    }
+
+    private static void writeFair(Writer writer, int projects, int tasksPerProject, long seed, DependencyPicker picker) throws IOException {
+        Writer out = buffered(writer);
+        Random random = new Random(seed);
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<Projects>\n");
+        for (int p = 0; p < projects; p++) {
+            out.write("  <Project>\n    <Name>Project " + p + "</Name>\n    <Tasks>\n");
+            for (int t = 0; t < tasksPerProject; t++) {
+                out.write("      <Task><TaskID>");
+                out.write(Integer.toString(t));
+                out.write("</TaskID><Description>Task ");
+                out.write(Integer.toString(t));
+                out.write("</Description><Duration>");
+                out.write(Integer.toString(1 + random.nextInt(10)));
+                out.write("</Duration><Dependencies>");
+                for (int d : picker.dependencies(t, random)) {
+                    out.write("<DependsOnTaskID>");
+                    out.write(Integer.toString(d));
+                    out.write("</DependsOnTaskID>");
+                }
+                out.write("</Dependencies></Task>\n");
+            }
+            out.write("    </Tasks>\n  </Project>\n");
+        }
+        out.write("</Projects>\n");
+        out.flush();
+    }
+
+    private static Writer buffered(Writer writer) {
+        return writer instanceof BufferedWriter ? writer : new BufferedWriter(writer, BUFFER_SIZE);
+    }
+
+    private static int clamp(int v) {
+        return Math.max(0, Math.min(EXTENT, v));
+    }
+}
@@ -0,0 +1,329 @@
+import campusnavigator.jmh.Scenarios;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Default-package side of the JMH benchmarks, see campusnavigator.jmh.Scenarios. Inputs are
+ * written by WorkloadGenerator; everything a Supplier needs besides the operation itself is set
+ * up before it is returned, so only the operation is measured.
+ */
+public class CampusScenarios implements Scenarios {
+
+    @Override
+    public Path writeCampus(int lines, int stations, long seed) throws IOException {
+        Path file = Files.createTempFile("campus-" + lines + "x" + stations + "-", ".dat");
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            WorkloadGenerator.writeCampus(out, lines, stations, WorkloadGenerator.Layout.UNIFORM, seed);
+        }
+        return file;
+    }
+
+    @Override
+    public Path writeFair(int projects, int tasks, String shape, long seed) throws IOException {
+        Path file = Files.createTempFile("fair-" + projects + "x" + tasks + "-", ".xml");
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            WorkloadGenerator.writeFair(out, projects, tasks, DagShape.valueOf(shape), seed);
+        }
+        return file;
+    }
+
+    @Override
+    public Supplier<?> readInput(Path campus) {
+        String file = campus.toString();
+        return () -> {
+            CampusNavigatorNetwork network = new CampusNavigatorNetwork();
+            network.readInput(file);
+            return network;
+        };
+    }
+
+    @Override
+    public Supplier<?> fastestRoute(Path campus, String routingMode) {
+        CampusNavigatorNetwork network = read(campus);
+        CampusNavigatorApp app = new CampusNavigatorApp();
+        app.routingMode = CampusNavigatorApp.RoutingMode.valueOf(routingMode);
+        return () -> app.getFastestRouteDirections(network);
+    }
+
+    @Override
+    public Supplier<?> allPairsSearch(Path campus, String searchQueue) {
+        CampusNavigatorNetwork network = read(campus);
+        CampusNavigatorApp app = new CampusNavigatorApp();
+        app.searchQueue = CampusNavigatorApp.SearchQueue.valueOf(searchQueue);
+        return () -> app.getFastestRouteDirections(network);
+    }
+
+    @Override
+    public Supplier<?> isochrone(Path campus, double minutes) {
+        CampusNavigatorNetwork network = read(campus);
+        IsochroneSearch search = new IsochroneSearch(CartSegmentGraph.build(network));
+        Point origin = network.startPoint.coordinates;
+        return () -> search.reach(origin, minutes);
+    }
+
+    @Override
+    public Supplier<?> earliestArrival(Path campus, double departureTime, long seed) {
+        CampusNavigatorNetwork network = read(campus);
+        ConnectionScanRouter router = timetabledRouter(network, seed);
+        Point start = network.startPoint.coordinates;
+        Point destination = network.destinationPoint.coordinates;
+        return () -> router.earliestArrival(start, destination, departureTime);
+    }
+
+    @Override
+    public Supplier<?> departureProfile(Path campus, double from, double to, long seed) {
+        CampusNavigatorNetwork network = read(campus);
+        ConnectionScanRouter router = timetabledRouter(network, seed);
+        Point start = network.startPoint.coordinates;
+        Point destination = network.destinationPoint.coordinates;
+        return () -> router.profile(start, destination, from, to);
+    }
+
+    @Override
+    public Supplier<?> readXml(Path fair) {
+        String file = fair.toString();
+        ClubFairSetupPlanner planner = new ClubFairSetupPlanner();
+        return () -> planner.readXML(file);
+    }
+
+    @Override
+    public Supplier<?> earliestSchedule(int tasks, String shape, long seed) {
+        Project project = randomProject("bench", tasks, DagShape.valueOf(shape), new Random(seed));
+        return project::getEarliestSchedule;
+    }
+
+    @Override
+    public Supplier<?> routeQueries(Path campus, boolean indexed, int pairs, long seed) {
+        CartSegmentGraph graph = CartSegmentGraph.build(read(campus));
+        Random random = new Random(seed);
+        Point[] starts = randomPoints(graph, pairs, random);
+        Point[] destinations = randomPoints(graph, pairs, random);
+        if (indexed) {
+            RouteIndex index = RouteIndex.build(graph);
+            return inTurn(pairs, k -> index.route(starts[k], destinations[k]));
+        }
+        CampusRouter router = new CampusRouter(graph, new AStarRouteEngine());
+        return inTurn(pairs, k -> router.route(starts[k], destinations[k]));
+    }
+
+    @Override
+    public Supplier<?> buildRouteIndex(Path campus) {
+        CartSegmentGraph graph = CartSegmentGraph.build(read(campus));
+        return () -> RouteIndex.build(graph);
+    }
+
+    @Override
+    public Supplier<?> kioskTraffic(Path campus, boolean cached, int pairs, long maxBytes, long seed) {
+        CampusRouter router = new CampusRouter(read(campus));
+        Random random = new Random(seed);
+        Point[] starts = randomPoints(router.getGraph(), pairs, random);
+        Point[] destinations = randomPoints(router.getGraph(), pairs, random);
+        double[] cumulative = new double[pairs];
+        for (int k = 0; k < pairs; k++) {
+            cumulative[k] = (k > 0 ? cumulative[k - 1] : 0) + 1.0 / (k + 1);
+        }
+        int[] trace = new int[pairs * 10];
+        for (int i = 0; i < trace.length; i++) {
+            int k = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[pairs - 1]);
+            trace[i] = k >= 0 ? k : -k - 1;
+        }
+        if (!cached) {
+            return inTurn(trace.length, i -> router.route(starts[trace[i]], destinations[trace[i]]));
+        }
+        RouteCache cache = new RouteCache(router, 1, maxBytes);
+        for (int k = 0; k < Math.min(pairs, 200); k++) {
+            if (totalDuration(cache.route(starts[k], destinations[k])) != totalDuration(router.route(starts[k], destinations[k]))) {
+                throw new IllegalStateException("Cached route differs for pair " + k);
+            }
+        }
+        cache.clear();
+        return inTurn(trace.length, i -> cache.route(starts[trace[i]], destinations[trace[i]]));
+    }
+
+    @Override
+    public Supplier<?> printSchedules(int projects, int tasks, ExecutorService executor, long seed) {
+        List<Project> plan = randomProjects(projects, tasks, seed);
+        ClubFairSetupPlanner planner = new ClubFairSetupPlanner();
+        PrintWriter sink = new PrintWriter(Writer.nullWriter());
+        if (executor == null) {
+            return () -> {
+                printSequential(plan, sink);
+                return sink;
+            };
+        }
+        StringWriter expected = new StringWriter();
+        printSequential(plan, new PrintWriter(expected));
+        StringWriter actual = new StringWriter();
+        planner.printSchedule(plan, executor, new PrintWriter(actual));
+        if (!expected.toString().equals(actual.toString())) {
+            throw new IllegalStateException("Parallel output differs from sequential output");
+        }
+        return () -> {
+            planner.printSchedule(plan, executor, sink);
+            return sink;
+        };
+    }
+
+    @Override
+    public Supplier<?> scheduleWithSharedCrews(int projects, int tasks, int crews, long seed) {
+        List<Project> plan = randomProjects(projects, tasks, seed);
+        ClubFairSetupPlanner planner = new ClubFairSetupPlanner();
+        return () -> planner.scheduleWithSharedCrews(plan, crews);
+    }
+
+    @Override
+    public Supplier<?> buildTaskGraph(int tasks, int maxDependencies, long seed) {
+        SparsePlan plan = new SparsePlan(tasks, maxDependencies, new Random(seed));
+        return plan::build;
+    }
+
+    @Override
+    public Supplier<?> earliestStart(int tasks, int maxDependencies, long seed) {
+        TaskGraph graph = new SparsePlan(tasks, maxDependencies, new Random(seed)).build();
+        return graph::earliestStart;
+    }
+
+    @Override
+    public Supplier<?> criticalPath(int tasks, int maxDependencies, long seed) {
+        TaskGraph graph = new SparsePlan(tasks, maxDependencies, new Random(seed)).build();
+        return graph::analyze;
+    }
+
+    @Override
+    public Supplier<?> durationUpdate(int tasks, int maxDependencies, long seed) {
+        Random random = new Random(seed);
+        SparsePlan plan = new SparsePlan(tasks, maxDependencies, random);
+        IncrementalScheduler scheduler = new IncrementalScheduler(plan.build());
+        // Late tasks have small downstream cones, like live updates near the end of a setup
+        return () -> scheduler.setDuration(plan.ids[tasks - 1 - random.nextInt(Math.min(tasks, 1000))], 1 + random.nextInt(10));
+    }
+
+    private static CampusNavigatorNetwork read(Path campus) {
+        return new CampusNavigatorApp().readCampusNavigatorNetwork(campus.toString());
+    }
+
+    /**
+     * Timetables go on copies of the lines, so the network itself stays without them.
+     */
+    private static ConnectionScanRouter timetabledRouter(CampusNavigatorNetwork network, long seed) {
+        Random random = new Random(seed);
+        List<CartLine> timetabled = new ArrayList<>(network.lines.size());
+        for (CartLine line : network.lines) {
+            CartLine copy = new CartLine(line.cartLineName, line.cartLineStations);
+            copy.setTimetable(6 * 60 + random.nextInt(60), 22 * 60, 5 + random.nextInt(11));
+            timetabled.add(copy);
+        }
+        return new ConnectionScanRouter(
+                CartTimetable.build(timetabled, network.averageCartSpeed, network.averageWalkingSpeed));
+    }
+
+    /**
+     * Answers query(0), query(1), ... query(count - 1) on successive calls, then starts over.
+     */
+    private static Supplier<?> inTurn(int count, IntFunction<?> query) {
+        int[] next = {0};
+        return () -> {
+            int i = next[0];
+            next[0] = i + 1 == count ? 0 : i + 1;
+            return query.apply(i);
+        };
+    }
+
+    /**
+     * @return count random points within the bounding box of the graph's stations
+     */
+    private static Point[] randomPoints(CartSegmentGraph graph, int count, Random random) {
+        int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+        for (int v = 0; v < graph.stationCount; v++) {
+            minX = Math.min(minX, graph.xs[v]);
+            maxX = Math.max(maxX, graph.xs[v]);
+            minY = Math.min(minY, graph.ys[v]);
+            maxY = Math.max(maxY, graph.ys[v]);
+        }
+        Point[] points = new Point[count];
+        for (int i = 0; i < count; i++) {
+            points[i] = new Point(minX + random.nextInt(maxX - minX + 1), minY + random.nextInt(maxY - minY + 1));
+        }
+        return points;
+    }
+
+    private static double totalDuration(List<RouteDirection> route) {
+        double total = 0;
+        for (RouteDirection step : route) {
+            total += step.duration;
+        }
+        return total;
+    }
+
+    private static void printSequential(List<Project> projects, PrintWriter out) {
+        ReportWriter report = ReportWriter.plainText(out);
+        for (Project p : projects) {
+            p.writeSchedule(p.getEarliestSchedule(), report);
+        }
+        report.flush();
+    }
+
+    private static List<Project> randomProjects(int projectCount, int taskCount, long seed) {
+        Random random = new Random(seed);
+        List<Project> projects = new ArrayList<>(projectCount);
+        for (int p = 0; p < projectCount; p++) {
+            projects.add(randomProject("Project " + p, taskCount, DagShape.RANDOM, random));
+        }
+        return projects;
+    }
+
+    private static Project randomProject(String name, int taskCount, DagShape shape, Random random) {
+        List<Task> tasks = new ArrayList<>(taskCount);
+        for (int t = 0; t < taskCount; t++) {
+            List<Integer> dependencies = new ArrayList<>();
+            for (int d : shape.dependencies(t, taskCount, random)) {
+                dependencies.add(d);
+            }
+            tasks.add(new Task(t, "Task " + t, 1 + random.nextInt(10), dependencies));
+        }
+        return new Project(name, tasks);
+    }
+
+    /**
+     * A large project as the arrays TaskGraph.build takes, with ids id = 3 * position + 1 and
+     * dependencies mostly on the 64 tasks before, so the plan stays deep instead of collapsing
+     * into one level.
+     */
+    private static final class SparsePlan {
+        final int[] ids;
+        final int[] durations;
+        final int[] dependencyStart;
+        final int[] dependencies;
+
+        SparsePlan(int n, int maxDependencies, Random random) {
+            ids = new int[n];
+            durations = new int[n];
+            dependencyStart = new int[n + 1];
+            dependencies = new int[n * maxDependencies];
+            for (int i = 0; i < n; i++) {
+                ids[i] = 3 * i + 1;
+                durations[i] = 1 + random.nextInt(10);
+                int count = i == 0 ? 0 : random.nextInt(Math.min(i, maxDependencies) + 1);
+                int d = dependencyStart[i];
+                for (int k = 0; k < count; k++) {
+                    dependencies[d++] = ids[i - 1 - random.nextInt(Math.min(i, 64))];
+                }
+                dependencyStart[i + 1] = d;
+            }
+        }
+
+        TaskGraph build() {
+            return TaskGraph.build(ids, durations, dependencyStart, dependencies);
+        }
+    }
+}
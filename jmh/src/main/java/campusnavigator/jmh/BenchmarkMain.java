@@ -0,0 +1,27 @@
+package campusnavigator.jmh;
+
+import java.util.Arrays;
+
+/**
+ * Entry point of benchmarks.jar: the JMH command line with the GC profiler always on, so every
+ * result comes with its allocation rate (gc.alloc.rate.norm is bytes per operation). Takes the
+ * usual JMH options, e.g. a benchmark regex, -f, -wi, -i or -l.
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        boolean gc = false;
+        for (int i = 0; i + 1 < args.length; i++) {
+            gc |= args[i].equals("-prof") && args[i + 1].startsWith("gc");
+        }
+        if (!gc) {
+            args = Arrays.copyOf(args, args.length + 2);
+            args[args.length - 2] = "-prof";
+            args[args.length - 1] = "gc";
+        }
+        org.openjdk.jmh.Main.main(args);
+    }
+}
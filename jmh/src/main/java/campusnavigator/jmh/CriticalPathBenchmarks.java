@@ -0,0 +1,59 @@
+package campusnavigator.jmh;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * TaskGraph building and critical-path analysis on one large random project with up to three
+ * dependencies per task, and single duration updates through an IncrementalScheduler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CriticalPathBenchmarks {
+    private static final int MAX_DEPENDENCIES = 3;
+
+    @Param({"10000", "1000000"})
+    public int tasks;
+
+    private Supplier<?> build;
+    private Supplier<?> earliestStart;
+    private Supplier<?> analyze;
+    private Supplier<?> update;
+
+    @Setup
+    public void setUp() {
+        Scenarios scenarios = Scenarios.load();
+        build = scenarios.buildTaskGraph(tasks, MAX_DEPENDENCIES, Workloads.SEED);
+        earliestStart = scenarios.earliestStart(tasks, MAX_DEPENDENCIES, Workloads.SEED);
+        analyze = scenarios.criticalPath(tasks, MAX_DEPENDENCIES, Workloads.SEED);
+        update = scenarios.durationUpdate(tasks, MAX_DEPENDENCIES, Workloads.SEED);
+    }
+
+    @Benchmark
+    public void build(Blackhole bh) {
+        bh.consume(build.get());
+    }
+
+    @Benchmark
+    public void earliestStart(Blackhole bh) {
+        bh.consume(earliestStart.get());
+    }
+
+    @Benchmark
+    public void analyze(Blackhole bh) {
+        bh.consume(analyze.get());
+    }
+
+    /** One duration change of a task near the end of the plan. */
+    @Benchmark
+    public void setDuration(Blackhole bh) {
+        bh.consume(update.get());
+    }
+}
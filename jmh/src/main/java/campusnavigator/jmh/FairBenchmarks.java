@@ -0,0 +1,47 @@
+package campusnavigator.jmh;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * ClubFairSetupPlanner.readXML over generated plans of projects x tasks per project.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FairBenchmarks {
+
+    @Param({"10x50", "100x200"})
+    public String fair;
+
+    @Param({"RANDOM", "CHAIN"})
+    public String shape;
+
+    private Path file;
+    private Supplier<?> readXml;
+
+    @Setup
+    public void setUp() throws IOException {
+        Scenarios scenarios = Scenarios.load();
+        file = Workloads.fair(scenarios, fair, shape);
+        readXml = scenarios.readXml(file);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Workloads.delete(file);
+    }
+
+    @Benchmark
+    public void readXML(Blackhole bh) {
+        bh.consume(readXml.get());
+    }
+}
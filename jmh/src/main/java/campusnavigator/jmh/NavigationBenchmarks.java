@@ -0,0 +1,69 @@
+package campusnavigator.jmh;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * CampusNavigatorNetwork.readInput, IsochroneSearch.reach and the ConnectionScanRouter queries
+ * over generated campuses of cart lines x stations per line.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class NavigationBenchmarks {
+
+    @Param({"3x8", "10x20", "20x50"})
+    public String campus;
+
+    private Path file;
+    private Supplier<?> readInput;
+    private Supplier<?> isochrone;
+    private Supplier<?> earliestArrival;
+    private Supplier<?> departureProfile;
+
+    @Setup
+    public void setUp() throws IOException {
+        Scenarios scenarios = Scenarios.load();
+        file = Workloads.campus(scenarios, campus);
+        readInput = scenarios.readInput(file);
+        isochrone = scenarios.isochrone(file, 10.0);
+        earliestArrival = scenarios.earliestArrival(file, 9 * 60, Workloads.SEED);
+        departureProfile = scenarios.departureProfile(file, 9 * 60, 10 * 60, Workloads.SEED);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Workloads.delete(file);
+    }
+
+    @Benchmark
+    public void readInput(Blackhole bh) {
+        bh.consume(readInput.get());
+    }
+
+    /** Stations reachable within 10 minutes of the campus start. */
+    @Benchmark
+    public void isochrone(Blackhole bh) {
+        bh.consume(isochrone.get());
+    }
+
+    /** Earliest arrival when leaving at 09:00. */
+    @Benchmark
+    public void connectionScan(Blackhole bh) {
+        bh.consume(earliestArrival.get());
+    }
+
+    /** All best departures between 09:00 and 10:00. */
+    @Benchmark
+    public void connectionScanProfile(Blackhole bh) {
+        bh.consume(departureProfile.get());
+    }
+}
@@ -0,0 +1,54 @@
+package campusnavigator.jmh;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Skewed kiosk traffic over 2000 query pairs answered by a CampusRouter with and without a
+ * 1 MiB RouteCache in front. The cache lives for the whole trial, so warm-up fills it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RouteCacheBenchmarks {
+    private static final int PAIRS = 2000;
+    private static final long MAX_BYTES = 1 << 20;
+
+    @Param({"10x20", "20x50"})
+    public String campus;
+
+    private Path file;
+    private Supplier<?> uncached;
+    private Supplier<?> cached;
+
+    @Setup
+    public void setUp() throws IOException {
+        Scenarios scenarios = Scenarios.load();
+        file = Workloads.campus(scenarios, campus);
+        uncached = scenarios.kioskTraffic(file, false, PAIRS, MAX_BYTES, Workloads.SEED);
+        cached = scenarios.kioskTraffic(file, true, PAIRS, MAX_BYTES, Workloads.SEED);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Workloads.delete(file);
+    }
+
+    @Benchmark
+    public void uncached(Blackhole bh) {
+        bh.consume(uncached.get());
+    }
+
+    @Benchmark
+    public void cached(Blackhole bh) {
+        bh.consume(cached.get());
+    }
+}
@@ -0,0 +1,60 @@
+package campusnavigator.jmh;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Query latency of a precomputed RouteIndex against a plain A* search, cycling through the same
+ * random start/destination pairs, and the cost of building the index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RouteIndexBenchmarks {
+    private static final int PAIRS = 10000;
+
+    @Param({"3x8", "10x20", "20x50"})
+    public String campus;
+
+    private Path file;
+    private Supplier<?> search;
+    private Supplier<?> index;
+    private Supplier<?> build;
+
+    @Setup
+    public void setUp() throws IOException {
+        Scenarios scenarios = Scenarios.load();
+        file = Workloads.campus(scenarios, campus);
+        search = scenarios.routeQueries(file, false, PAIRS, Workloads.SEED);
+        index = scenarios.routeQueries(file, true, PAIRS, Workloads.SEED);
+        build = scenarios.buildRouteIndex(file);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Workloads.delete(file);
+    }
+
+    @Benchmark
+    public void search(Blackhole bh) {
+        bh.consume(search.get());
+    }
+
+    @Benchmark
+    public void index(Blackhole bh) {
+        bh.consume(index.get());
+    }
+
+    @Benchmark
+    public void buildIndex(Blackhole bh) {
+        bh.consume(build.get());
+    }
+}
@@ -0,0 +1,47 @@
+package campusnavigator.jmh;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * CampusNavigatorApp.getFastestRouteDirections in every routing mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RoutingBenchmarks {
+
+    @Param({"3x8", "10x20", "20x50"})
+    public String campus;
+
+    @Param({"ALL_PAIRS", "COMPILED", "IMPLICIT_WALK", "A_STAR", "BIDIRECTIONAL_A_STAR", "RADIUS_PRUNED"})
+    public String mode;
+
+    private Path file;
+    private Supplier<?> route;
+
+    @Setup
+    public void setUp() throws IOException {
+        Scenarios scenarios = Scenarios.load();
+        file = Workloads.campus(scenarios, campus);
+        route = scenarios.fastestRoute(file, mode);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Workloads.delete(file);
+    }
+
+    @Benchmark
+    public void getFastestRouteDirections(Blackhole bh) {
+        bh.consume(route.get());
+    }
+}
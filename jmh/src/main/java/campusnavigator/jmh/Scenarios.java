@@ -0,0 +1,93 @@
+package campusnavigator.jmh;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * The operations the benchmarks measure. The campus navigator classes live in the default
+ * package, which code in a named package cannot refer to, and JMH rejects benchmarks in the
+ * default package. So each benchmark loads the default-package CampusScenarios once per trial and
+ * asks it for a Supplier that runs one operation; the measured call is a plain interface call.
+ * Names of enum constants (routing modes, queues, DAG shapes) are passed as strings.
+ */
+public interface Scenarios {
+
+    static Scenarios load() {
+        try {
+            return (Scenarios) Class.forName("CampusScenarios").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("CampusScenarios is missing from the benchmark jar", e);
+        }
+    }
+
+    /**
+     * Writes a generated campus of lines x stations cart stations to a new temporary file.
+     */
+    Path writeCampus(int lines, int stations, long seed) throws IOException;
+
+    /**
+     * Writes a generated club fair plan with projects x tasks tasks of the given DAG shape to a
+     * new temporary file.
+     */
+    Path writeFair(int projects, int tasks, String shape, long seed) throws IOException;
+
+    Supplier<?> readInput(Path campus);
+
+    Supplier<?> fastestRoute(Path campus, String routingMode);
+
+    Supplier<?> allPairsSearch(Path campus, String searchQueue);
+
+    Supplier<?> isochrone(Path campus, double minutes);
+
+    /**
+     * Gives every cart line a timetable drawn from seed and answers an earliest-arrival query
+     * leaving the campus start at departureTime.
+     */
+    Supplier<?> earliestArrival(Path campus, double departureTime, long seed);
+
+    Supplier<?> departureProfile(Path campus, double from, double to, long seed);
+
+    Supplier<?> readXml(Path fair);
+
+    Supplier<?> earliestSchedule(int tasks, String shape, long seed);
+
+    /**
+     * Routes the next of pairs random start/destination pairs inside the campus on every call,
+     * through a RouteIndex built beforehand if indexed, otherwise with an A* search.
+     */
+    Supplier<?> routeQueries(Path campus, boolean indexed, int pairs, long seed);
+
+    Supplier<?> buildRouteIndex(Path campus);
+
+    /**
+     * Replays kiosk traffic, one query per call: pair k of pairs random start/destination pairs
+     * is drawn with probability proportional to 1 / k. Answered by a CampusRouter, or if cached
+     * by a RouteCache of maxBytes in front of it that is kept across calls.
+     */
+    Supplier<?> kioskTraffic(Path campus, boolean cached, int pairs, long maxBytes, long seed);
+
+    /**
+     * Schedules and formats projects random projects of tasks tasks each (DagShape.RANDOM) to a
+     * discarding writer, on executor or sequentially if it is null.
+     */
+    Supplier<?> printSchedules(int projects, int tasks, ExecutorService executor, long seed);
+
+    Supplier<?> scheduleWithSharedCrews(int projects, int tasks, int crews, long seed);
+
+    /**
+     * Builds a TaskGraph of tasks tasks with up to maxDependencies each on recent tasks. Task ids
+     * are spread out (3 * position + 1), so the sparse id mapping is part of the work.
+     */
+    Supplier<?> buildTaskGraph(int tasks, int maxDependencies, long seed);
+
+    Supplier<?> earliestStart(int tasks, int maxDependencies, long seed);
+
+    Supplier<?> criticalPath(int tasks, int maxDependencies, long seed);
+
+    /**
+     * Sets the duration of one of the last 1000 tasks per call through an IncrementalScheduler.
+     */
+    Supplier<?> durationUpdate(int tasks, int maxDependencies, long seed);
+}
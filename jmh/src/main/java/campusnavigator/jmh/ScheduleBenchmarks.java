@@ -0,0 +1,37 @@
+package campusnavigator.jmh;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Project.getEarliestSchedule on generated projects in every DagShape.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ScheduleBenchmarks {
+
+    @Param({"100", "10000"})
+    public int tasks;
+
+    @Param({"CHAIN", "WIDE", "LAYERED", "RANDOM"})
+    public String shape;
+
+    private Supplier<?> schedule;
+
+    @Setup
+    public void setUp() {
+        schedule = Scenarios.load().earliestSchedule(tasks, shape, Workloads.SEED);
+    }
+
+    @Benchmark
+    public void getEarliestSchedule(Blackhole bh) {
+        bh.consume(schedule.get());
+    }
+}
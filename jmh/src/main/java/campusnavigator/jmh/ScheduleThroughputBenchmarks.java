@@ -0,0 +1,49 @@
+package campusnavigator.jmh;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * ClubFairSetupPlanner scheduling and formatting 1000 random projects of 200 tasks to a
+ * discarding writer, sequentially (threads = 0) and on fixed pools. Setup checks that the
+ * parallel output matches the sequential one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ScheduleThroughputBenchmarks {
+    private static final int PROJECTS = 1000;
+    private static final int TASKS = 200;
+
+    @Param({"0", "1", "2", "4"})
+    public int threads;
+
+    private ExecutorService executor;
+    private Supplier<?> print;
+
+    @Setup
+    public void setUp() {
+        executor = threads > 0 ? Executors.newFixedThreadPool(threads) : null;
+        print = Scenarios.load().printSchedules(PROJECTS, TASKS, executor, Workloads.SEED);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Benchmark
+    public void printSchedule(Blackhole bh) {
+        bh.consume(print.get());
+    }
+}
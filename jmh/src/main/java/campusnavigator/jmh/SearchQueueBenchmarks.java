@@ -0,0 +1,48 @@
+package campusnavigator.jmh;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The queues of the ALL_PAIRS search. Every station of that graph walks to every other, so
+ * stale queue entries pile up and the choice of queue shows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SearchQueueBenchmarks {
+
+    @Param({"3x8", "10x20", "20x50"})
+    public String campus;
+
+    @Param({"PRIORITY_QUEUE", "BINARY_HEAP", "FOUR_ARY_HEAP", "EIGHT_ARY_HEAP"})
+    public String queue;
+
+    private Path file;
+    private Supplier<?> search;
+
+    @Setup
+    public void setUp() throws IOException {
+        Scenarios scenarios = Scenarios.load();
+        file = Workloads.campus(scenarios, campus);
+        search = scenarios.allPairsSearch(file, queue);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Workloads.delete(file);
+    }
+
+    @Benchmark
+    public void searchQueue(Blackhole bh) {
+        bh.consume(search.get());
+    }
+}
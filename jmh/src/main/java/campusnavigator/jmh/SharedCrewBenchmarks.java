@@ -0,0 +1,37 @@
+package campusnavigator.jmh;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * ClubFairSetupPlanner.scheduleWithSharedCrews on 1000 random projects of 200 tasks with a
+ * quarter, one and four crews per project.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SharedCrewBenchmarks {
+    private static final int PROJECTS = 1000;
+    private static final int TASKS = 200;
+
+    @Param({"250", "1000", "4000"})
+    public int crews;
+
+    private Supplier<?> schedule;
+
+    @Setup
+    public void setUp() {
+        schedule = Scenarios.load().scheduleWithSharedCrews(PROJECTS, TASKS, crews, Workloads.SEED);
+    }
+
+    @Benchmark
+    public void scheduleWithSharedCrews(Blackhole bh) {
+        bh.consume(schedule.get());
+    }
+}
@@ -0,0 +1,43 @@
+package campusnavigator.jmh;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Sizes of the generated inputs and their temporary files. Every input is generated from SEED,
+ * so all forks and runs measure the same campus or plan.
+ */
+final class Workloads {
+    static final long SEED = 42;
+
+    private Workloads() {
+    }
+
+    /**
+     * Writes the campus for a size parameter such as "10x20" (cart lines x stations per line).
+     */
+    static Path campus(Scenarios scenarios, String size) throws IOException {
+        int[] d = dimensions(size);
+        return scenarios.writeCampus(d[0], d[1], SEED);
+    }
+
+    /**
+     * Writes the plan for a size parameter such as "100x200" (projects x tasks per project).
+     */
+    static Path fair(Scenarios scenarios, String size, String shape) throws IOException {
+        int[] d = dimensions(size);
+        return scenarios.writeFair(d[0], d[1], shape, SEED);
+    }
+
+    static void delete(Path file) throws IOException {
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static int[] dimensions(String size) {
+        int x = size.indexOf('x');
+        return new int[]{Integer.parseInt(size.substring(0, x)), Integer.parseInt(size.substring(x + 1))};
+    }
+}